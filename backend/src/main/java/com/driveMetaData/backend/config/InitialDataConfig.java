@@ -1,10 +1,14 @@
 package com.driveMetaData.backend.config;
 
+import com.driveMetaData.backend.dto.ClientRequest;
 import com.driveMetaData.backend.entity.AppUser;
+import com.driveMetaData.backend.entity.Client;
 import com.driveMetaData.backend.repository.AppUserRepository;
-import com.driveMetaData.backend.service.RedisService;
+import com.driveMetaData.backend.repository.ClientRepository;
+import com.driveMetaData.backend.service.ClientAdminService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,18 +24,27 @@ import java.util.List;
 public class InitialDataConfig {
 
     private final AppUserRepository appUserRepository;
-    private final RedisService redisService;
+    private final ClientRepository clientRepository;
+    private final ClientAdminService clientAdminService;
     private final PasswordEncoder passwordEncoder;
 
+    // Clients created as active when the clients table is empty, leave blank to start without any
+    @Value("${app.clients.seed-active:}")
+    private List<String> seedActiveClients;
+
     @Bean
     public CommandLineRunner initializeData() {
         return args -> {
-            // Set test client status to active on application startup
-            String clientId = "10";
-            String statusJson = "{\"status\":\"active\"}";
-            
-            redisService.setClientStatus(clientId, statusJson);
-            log.info("Initialized client_id {} with status: active", clientId);
+            // Seed the client registry on first start, after that clients are managed through the admin API
+            if (clientRepository.count() == 0) {
+                for (String clientId : seedActiveClients) {
+                    if (!clientId.isBlank()) {
+                        ClientRequest request = new ClientRequest();
+                        request.setStatus(Client.ACTIVE);
+                        clientAdminService.save(clientId.trim(), request);
+                    }
+                }
+            }
             
             // Initialize default users if none exist
             if (appUserRepository.count() == 0) {
@@ -1,52 +1,246 @@
 package com.driveMetaData.backend.config;
 
 import com.driveMetaData.backend.dto.RegistrationRequest;
+import com.driveMetaData.backend.serialization.RegistrationDeserializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.kafka.annotation.EnableKafkaRetryTopic;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@EnableKafkaRetryTopic
+@RequiredArgsConstructor
 public class KafkaConsumerConfig {
 
+    public static final String DEAD_LETTER_SUFFIX = "-dlt";
+
+    private final Environment environment;
+    private final VirtualThreadTracker virtualThreadTracker;
+    private final MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${app.kafka.topic.registration}")
+    private String registrationTopic;
+
+    @Value("${app.kafka.topic.partitions:6}")
+    private int partitions;
+
+    @Value("${app.kafka.topic.replication-factor:1}")
+    private int replicationFactor;
+
+    @Value("${app.kafka.consumer.concurrency:0}")
+    private int concurrency;
+
+    @Value("${app.kafka.consumer.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${app.kafka.consumer.retry.initial-interval-ms:1000}")
+    private long retryInitialIntervalMs;
+
+    @Value("${app.kafka.consumer.retry.multiplier:2.0}")
+    private double retryMultiplier;
+
+    @Value("${app.kafka.consumer.retry.max-interval-ms:30000}")
+    private long retryMaxIntervalMs;
+
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${app.kafka.consumer.batch.size:500}")
+    private int batchSize;
+
+    @Value("${app.kafka.consumer.batch.max-wait-ms:200}")
+    private int batchMaxWaitMs;
+
+    @Value("${app.kafka.consumer.batch.min-bytes:65536}")
+    private int batchMinBytes;
+
+    // Created on startup when missing, an existing topic keeps its partition count
     @Bean
-    public ConsumerFactory<String, RegistrationRequest> registrationConsumerFactory() {
-        Map<String, Object> props = new HashMap<>();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        
-        // Error handling deserializer configuration
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
-        
-        // Configure JsonDeserializer
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, RegistrationRequest.class.getName());
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.driveMetaData.backend.dto");
+    public NewTopic registrationTopic() {
+        return TopicBuilder.name(registrationTopic)
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .build();
+    }
+
+    /**
+     * Non-blocking retries for the record listener. A failed record moves to registration-retry-0, -1, ...,
+     * each consumed after its backoff has elapsed, so the main partition keeps flowing. It lands in
+     * registration-dlt when the attempts are used up. The exception, the stack trace and the original
+     * topic/partition/offset travel as kafka_dlt-* headers.
+     */
+    @Bean
+    @ConditionalOnExpression("!${app.kafka.consumer.batch.enabled:false} && !${app.kafka.consumer.parallel.enabled:false}")
+    public RetryTopicConfiguration registrationRetryTopics(KafkaTemplate<String, Object> kafkaTemplate) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopic(registrationTopic)
+                .exponentialBackoff(retryInitialIntervalMs, retryMultiplier, retryMaxIntervalMs)
+                .maxAttempts(retryAttempts)
+                .retryTopicSuffix("-retry")
+                .suffixTopicsWithIndexValues()
+                .dltSuffix(DEAD_LETTER_SUFFIX)
+                .autoCreateTopicsWith(partitions, (short) replicationFactor)
+                .listenerFactory("registrationKafkaListenerContainerFactory")
+                .doNotRetryOnDltFailure()
+                .create(kafkaTemplate);
+    }
+
+    // Resumes a paused retry partition once the backoff of its next record has elapsed
+    @Bean
+    public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("registration-retry-scheduler-");
+        return new RetryTopicSchedulerWrapper(scheduler);
+    }
+
+    // The retry topics above create the dead-letter topic in record mode, the batch and parallel listeners need it declared
+    @Bean
+    @ConditionalOnExpression("${app.kafka.consumer.batch.enabled:false} || ${app.kafka.consumer.parallel.enabled:false}")
+    public NewTopic registrationDeadLetterTopic() {
+        return TopicBuilder.name(registrationTopic + DEAD_LETTER_SUFFIX)
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .build();
+    }
+
+    // Blocking retries for the batch and parallel listeners, whose records cannot be moved to retry topics
+    @Bean
+    public ExponentialBackOffWithMaxRetries registrationRetryBackOff() {
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(retryAttempts - 1);
+        backOff.setInitialInterval(retryInitialIntervalMs);
+        backOff.setMultiplier(retryMultiplier);
+        backOff.setMaxInterval(retryMaxIntervalMs);
+        return backOff;
+    }
+
+    // Publishes to registration-dlt with the failure in kafka_dlt-* headers, keyed like the original record
+    @Bean
+    public DeadLetterPublishingRecoverer registrationDeadLetterRecoverer(KafkaTemplate<String, Object> kafkaTemplate) {
+        return new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, exception) -> new TopicPartition(registrationTopic + DEAD_LETTER_SUFFIX, -1));
+    }
 
-        return new DefaultKafkaConsumerFactory<>(props);
+    @Bean
+    public ConsumerFactory<String, RegistrationRequest> registrationConsumerFactory() {
+        return meteredConsumerFactory(consumerProps());
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, RegistrationRequest> registrationKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, RegistrationRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(registrationConsumerFactory());
+        factory.setConcurrency(listenerConcurrency());
+        configureThreading(factory, "registration-listener-");
+        return factory;
+    }
+
+    // Records are acknowledged by the worker that saved them, in any order. The container only commits
+    // an offset once every record before it is acknowledged, so a crash replays unfinished records.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, RegistrationRequest> registrationParallelKafkaListenerContainerFactory(
+            DeadLetterPublishingRecoverer registrationDeadLetterRecoverer) {
+        ConcurrentKafkaListenerContainerFactory<String, RegistrationRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(registrationConsumerFactory());
+        factory.setConcurrency(listenerConcurrency());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        // Saves are retried by the workers, this only sees undeserializable records and sends them to the dead-letter topic
+        factory.setCommonErrorHandler(new DefaultErrorHandler(registrationDeadLetterRecoverer, registrationRetryBackOff()));
+        configureThreading(factory, "registration-parallel-listener-");
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, RegistrationRequest> registrationBatchConsumerFactory() {
+        Map<String, Object> props = consumerProps();
+
+        // Let the broker accumulate up to batch.size records or wait at most batch.max-wait-ms
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, batchMaxWaitMs);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batchMinBytes);
+
+        return meteredConsumerFactory(props);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, RegistrationRequest> registrationBatchKafkaListenerContainerFactory(
+            DeadLetterPublishingRecoverer registrationDeadLetterRecoverer) {
+        ConcurrentKafkaListenerContainerFactory<String, RegistrationRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(registrationBatchConsumerFactory());
+        factory.setConcurrency(listenerConcurrency());
+        factory.setBatchListener(true);
+        // Records before the one named in BatchListenerFailedException are committed, that one is retried with
+        // backoff and then dead-lettered, and the rest of the batch is polled again
+        factory.setCommonErrorHandler(new DefaultErrorHandler(registrationDeadLetterRecoverer, registrationRetryBackOff()));
+        configureThreading(factory, "registration-batch-listener-");
         return factory;
     }
-}
\ No newline at end of file
+
+    // One consumer per partition by default, more would sit idle without an assignment
+    private int listenerConcurrency() {
+        return concurrency > 0 ? concurrency : partitions;
+    }
+
+    // Client metrics as kafka.consumer.* meters, kafka.consumer.fetch.manager.records.lag is the lag per partition
+    private ConsumerFactory<String, RegistrationRequest> meteredConsumerFactory(Map<String, Object> props) {
+        DefaultKafkaConsumerFactory<String, RegistrationRequest> factory = new DefaultKafkaConsumerFactory<>(props);
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    // Our factories bypass Boot's configurer, so they follow spring.threads.virtual.enabled themselves
+    private void configureThreading(ConcurrentKafkaListenerContainerFactory<?, ?> factory, String threadNamePrefix) {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return;
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(virtualThreadTracker::track);
+        factory.getContainerProperties().setListenerTaskExecutor(executor);
+    }
+
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+
+        // Error handling deserializer configuration
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
+        // Reads JSON and binary registration records side by side
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, RegistrationDeserializer.class);
+        return props;
+    }
+}
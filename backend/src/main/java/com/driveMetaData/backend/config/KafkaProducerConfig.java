@@ -1,38 +1,131 @@
 package com.driveMetaData.backend.config;
 
+import com.driveMetaData.backend.serialization.RegistrationSerializer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.CompositeProducerListener;
+import org.springframework.kafka.support.LoggingProducerListener;
+import org.springframework.kafka.support.ProducerListener;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@RequiredArgsConstructor
+@Slf4j
 public class KafkaProducerConfig {
 
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${app.kafka.producer.profile:low-latency}")
+    private String profile;
+
+    @Value("${app.kafka.producer.value-format:json}")
+    private String valueFormat;
+
+    @Value("${app.registration.reactive.max-in-flight:1000}")
+    private int reactiveMaxInFlight;
+
+    // Built-in defaults of a profile, each value can be overridden under app.kafka.producer.profiles.<name>.*
+    private record ProducerProfile(int lingerMs, int batchSize, String compression, boolean idempotence) {
+    }
+
+    private static final Map<String, ProducerProfile> PROFILES = Map.of(
+            "low-latency", new ProducerProfile(0, 16384, "none", true),
+            "high-throughput", new ProducerProfile(20, 131072, "lz4", true));
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(producerProps());
+        // Client metrics as kafka.producer.* meters: batch-size, record-size, request-latency, compression-rate
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    // Non-blocking sender for the reactive registration endpoint, same serialization as the KafkaTemplate
+    @Bean
+    public KafkaSender<String, Object> reactiveKafkaSender() {
+        SenderOptions<String, Object> options = SenderOptions.<String, Object>create(producerProps())
+                .maxInFlight(reactiveMaxInFlight)
+                .producerListener(new reactor.kafka.sender.MicrometerProducerListener(meterRegistry));
+        return KafkaSender.create(options);
+    }
+
+    private Map<String, Object> producerProps() {
+        ProducerProfile defaults = PROFILES.get(profile);
+        if (defaults == null) {
+            throw new IllegalStateException("Unknown app.kafka.producer.profile " + profile + ", use " + PROFILES.keySet());
+        }
+        String prefix = "app.kafka.producer.profiles." + profile + ".";
+        int lingerMs = environment.getProperty(prefix + "linger-ms", Integer.class, defaults.lingerMs());
+        int batchSize = environment.getProperty(prefix + "batch-size", Integer.class, defaults.batchSize());
+        String compression = environment.getProperty(prefix + "compression", defaults.compression());
+        boolean idempotence = environment.getProperty(prefix + "idempotence", Boolean.class, defaults.idempotence());
+
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, true);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, RegistrationSerializer.class);
+        configProps.put(RegistrationSerializer.FORMAT_CONFIG, valueFormat);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
+        if (idempotence) {
+            // Required by idempotence, retries then cannot reorder or duplicate records
+            configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+            configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        }
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+        // The consumer always maps to RegistrationRequest, a class name header on every record is wasted bytes
+        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        return configProps;
     }
 
     @Bean
     public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory());
+        CompositeProducerListener<String, Object> listeners = new CompositeProducerListener<>();
+        listeners.addDelegate(new LoggingProducerListener<>());
+        listeners.addDelegate(recordSizeListener());
+        template.setProducerListener(listeners);
+        log.info("Kafka producer profile {}, {} values", profile, valueFormat);
+        return template;
+    }
+
+    // Serialized key plus value size of every acknowledged record, as a histogram
+    private ProducerListener<String, Object> recordSizeListener() {
+        DistributionSummary recordSize = DistributionSummary.builder("registration.kafka.record.size")
+                .description("Serialized size of acknowledged registration records")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        return new ProducerListener<>() {
+            @Override
+            public void onSuccess(ProducerRecord<String, Object> record, RecordMetadata metadata) {
+                recordSize.record(Math.max(0, metadata.serializedKeySize()) + Math.max(0, metadata.serializedValueSize()));
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,54 @@
 package com.driveMetaData.backend.config;
 
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 @Configuration
+@Slf4j
 public class RedisConfig {
 
+    @Value("${spring.data.redis.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    // Commands written while Redis is unreachable wait here, a full queue fails new commands at once
+    @Value("${app.redis.lettuce.request-queue-size:10000}")
+    private int requestQueueSize;
+
+    @Value("${app.redis.lettuce.reject-when-disconnected:false}")
+    private boolean rejectWhenDisconnected;
+
+    /**
+     * Replaces the client options Boot builds for a standalone server, keeping its connect and command
+     * timeouts but bounding the queue of commands that wait for a reconnect.
+     */
+    @Bean
+    public LettuceClientConfigurationBuilderCustomizer lettuceClientOptions() {
+        ClientOptions options = ClientOptions.builder()
+                .socketOptions(SocketOptions.builder().connectTimeout(connectTimeout).build())
+                .timeoutOptions(TimeoutOptions.enabled())
+                .requestQueueSize(requestQueueSize)
+                .disconnectedBehavior(rejectWhenDisconnected
+                        ? ClientOptions.DisconnectedBehavior.REJECT_COMMANDS
+                        : ClientOptions.DisconnectedBehavior.DEFAULT)
+                .build();
+        log.info("Redis client: {} commands queued at most, {} while disconnected", requestQueueSize,
+                rejectWhenDisconnected ? "rejecting" : "queueing");
+        return builder -> builder.clientOptions(options);
+    }
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -21,4 +60,11 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
-}
\ No newline at end of file
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
@@ -0,0 +1,46 @@
+package com.driveMetaData.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaIndexConfig {
+
+    private static final String EMAIL_PREFIX_INDEX = "idx_registrations_email_prefix";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Bean
+    public CommandLineRunner createRegistrationIndexes() {
+        return args -> {
+            // JPA cannot declare an operator class, email prefix searches need text_pattern_ops
+            // to use an index under a non-C collation
+            try {
+                // A concurrent build that failed leaves an invalid index behind, which IF NOT EXISTS would keep
+                if (isInvalid(EMAIL_PREFIX_INDEX)) {
+                    log.warn("Index {} is invalid after an interrupted build, recreating it", EMAIL_PREFIX_INDEX);
+                    jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + EMAIL_PREFIX_INDEX);
+                }
+                jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + EMAIL_PREFIX_INDEX + " "
+                        + "ON registrations (email text_pattern_ops)");
+            } catch (Exception e) {
+                log.error("Could not create index {}: {}", EMAIL_PREFIX_INDEX, e.getMessage());
+            }
+        };
+    }
+
+    private boolean isInvalid(String indexName) {
+        List<Boolean> valid = jdbcTemplate.queryForList(
+                "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+                        + "WHERE c.relname = ? AND pg_table_is_visible(c.oid)", Boolean.class, indexName);
+        return valid.contains(Boolean.FALSE);
+    }
+}
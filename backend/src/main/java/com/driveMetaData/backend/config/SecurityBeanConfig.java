@@ -1,15 +1,68 @@
 package com.driveMetaData.backend.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
+@Slf4j
 public class SecurityBeanConfig {
 
+    // OWASP minimum for BCrypt, and a ceiling so a fast machine cannot pick seconds-long hashes
+    private static final int MIN_TUNED_STRENGTH = 10;
+    private static final int MAX_TUNED_STRENGTH = 16;
+
+    // bcrypt or argon2, hashes of any other kind are re-encoded on their next successful login
+    @Value("${app.security.password.algorithm:bcrypt}")
+    private String algorithm;
+
+    // 0 tunes the BCrypt cost on startup to the target hash time
+    @Value("${app.security.password.bcrypt-strength:0}")
+    private int bcryptStrength;
+
+    @Value("${app.security.password.target-hash-ms:250}")
+    private long targetHashMs;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = bcryptStrength > 0 ? bcryptStrength : tuneBCryptStrength();
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(strength));
+        encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(strength));
+        return encoder;
+    }
+
+    // Highest cost whose hash still fits in the target, every step doubles the time
+    private int tuneBCryptStrength() {
+        for (int i = 0; i < 20; i++) {
+            new BCryptPasswordEncoder(4).encode("warm-up");
+        }
+        int strength = MIN_TUNED_STRENGTH;
+        long elapsedMs = timeHash(strength);
+        while (strength < MAX_TUNED_STRENGTH && elapsedMs * 2 <= targetHashMs) {
+            strength++;
+            elapsedMs = timeHash(strength);
+        }
+        log.info("BCrypt strength tuned to {} ({} ms per hash, target {} ms)", strength, elapsedMs, targetHashMs);
+        return strength;
+    }
+
+    private static long timeHash(int strength) {
+        long started = System.nanoTime();
+        new BCryptPasswordEncoder(strength).encode("strength-tuning");
+        return (System.nanoTime() - started) / 1_000_000;
     }
-}
\ No newline at end of file
+}
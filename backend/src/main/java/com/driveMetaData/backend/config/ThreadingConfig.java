@@ -0,0 +1,45 @@
+package com.driveMetaData.backend.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.Filter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * {@code spring.threads.virtual.enabled=true} (Java 21+) makes Spring Boot run Tomcat requests and async
+ * MVC work on virtual threads, {@link KafkaConsumerConfig} does the same for the listener containers.
+ * This class only adds the metrics that show whether that is paying off.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private static final String PINNING_METRICS_CLASS = "io.micrometer.java21.instrument.binder.jdk.VirtualThreadMetrics";
+
+    @Bean
+    public FilterRegistrationBean<Filter> virtualThreadRequestFilter(VirtualThreadTracker tracker) {
+        Filter filter = (request, response, chain) -> {
+            boolean tracked = tracker.enter();
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                if (tracked) {
+                    tracker.exit();
+                }
+            }
+        };
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // jvm.threads.virtual.pinned and submit.failed from JFR, the way to spot remaining pinning in production
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public MeterBinder virtualThreadPinningMetrics() throws ReflectiveOperationException {
+        return (MeterBinder) Class.forName(PINNING_METRICS_CLASS).getDeclaredConstructor().newInstance();
+    }
+}
@@ -0,0 +1,97 @@
+package com.driveMetaData.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts request and listener work running on virtual threads and the carrier threads they share.
+ * The build targets Java 17, so {@code Thread.isVirtual()} is looked up reflectively and is always
+ * false on older runtimes.
+ */
+@Component
+public class VirtualThreadTracker implements MeterBinder {
+
+    private static final MethodHandle IS_VIRTUAL = lookupIsVirtual();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.threads.virtual.active", active, AtomicInteger::get)
+                .description("Requests and listener tasks currently running on virtual threads")
+                .register(registry);
+        Gauge.builder("jvm.threads.virtual.carriers", VirtualThreadTracker::carrierCount)
+                .description("Platform threads of the virtual thread scheduler")
+                .register(registry);
+    }
+
+    public Runnable track(Runnable task) {
+        return () -> {
+            boolean tracked = enter();
+            try {
+                task.run();
+            } finally {
+                if (tracked) {
+                    exit();
+                }
+            }
+        };
+    }
+
+    /**
+     * @return true if the current thread is virtual and was counted, {@link #exit()} must follow
+     */
+    public boolean enter() {
+        if (!isVirtual(Thread.currentThread())) {
+            return false;
+        }
+        active.incrementAndGet();
+        return true;
+    }
+
+    public void exit() {
+        active.decrementAndGet();
+    }
+
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    // The JDK puts every carrier thread into one thread group, counting it is cheap enough for a gauge
+    private static int carrierCount() {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        ThreadGroup[] groups = new ThreadGroup[root.activeGroupCount() + 8];
+        int count = root.enumerate(groups, false);
+        for (int i = 0; i < count; i++) {
+            if ("CarrierThreads".equals(groups[i].getName())) {
+                return groups[i].activeCount();
+            }
+        }
+        return 0;
+    }
+
+    private static MethodHandle lookupIsVirtual() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
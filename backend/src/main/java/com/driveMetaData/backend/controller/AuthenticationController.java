@@ -3,16 +3,19 @@ package com.driveMetaData.backend.controller;
 import com.driveMetaData.backend.dto.AuthenticationRequest;
 import com.driveMetaData.backend.dto.AuthenticationResponse;
 import com.driveMetaData.backend.security.JwtUtil;
+import com.driveMetaData.backend.security.PasswordHashingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/v1")
 @RequiredArgsConstructor
@@ -21,14 +24,20 @@ import org.springframework.web.bind.annotation.*;
 public class AuthenticationController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
     private final JwtUtil jwtUtil;
 
+    // The password check runs on the bounded hashing pool, the request thread is released meanwhile
     @PostMapping("/authenticate")
-    public ResponseEntity<?> authenticate(@RequestBody AuthenticationRequest request) {
+    public CompletableFuture<ResponseEntity<?>> authenticate(@RequestBody AuthenticationRequest request) {
+        return passwordHashingExecutor.submit(() -> login(request));
+    }
+
+    private ResponseEntity<?> login(AuthenticationRequest request) {
+        Authentication authentication;
         try {
             // Authenticate the user
-            authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
             );
         } catch (BadCredentialsException e) {
@@ -36,8 +45,8 @@ public class AuthenticationController {
             return ResponseEntity.status(401).body("Authentication failed: Invalid username or password");
         }
 
-        // Generate JWT token
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(request.getUsername());
+        // Generate JWT token from the principal that was just loaded, no second user lookup
+        final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         final String jwt = jwtUtil.generateToken(userDetails);
 
         return ResponseEntity.ok(new AuthenticationResponse(jwt));
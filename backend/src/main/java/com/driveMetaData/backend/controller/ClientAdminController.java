@@ -0,0 +1,47 @@
+package com.driveMetaData.backend.controller;
+
+import com.driveMetaData.backend.dto.ClientDetails;
+import com.driveMetaData.backend.dto.ClientRequest;
+import com.driveMetaData.backend.service.ClientAdminService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/clients")
+@RequiredArgsConstructor
+public class ClientAdminController {
+
+    private final ClientAdminService clientAdminService;
+
+    @GetMapping
+    public ResponseEntity<List<ClientDetails>> list() {
+        return ResponseEntity.ok(clientAdminService.list());
+    }
+
+    @GetMapping("/{clientId}")
+    public ResponseEntity<ClientDetails> get(@PathVariable String clientId) {
+        return ResponseEntity.ok(clientAdminService.get(clientId));
+    }
+
+    // Takes effect on every node once the change event arrives, registrations never read the table
+    @PutMapping("/{clientId}")
+    public ResponseEntity<ClientDetails> save(@PathVariable String clientId, @Valid @RequestBody ClientRequest request) {
+        return ResponseEntity.ok(clientAdminService.save(clientId, request));
+    }
+
+    @DeleteMapping("/{clientId}")
+    public ResponseEntity<Void> delete(@PathVariable String clientId) {
+        clientAdminService.delete(clientId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.driveMetaData.backend.controller;
+
+import com.driveMetaData.backend.dto.DeadLetterReplayStatus;
+import com.driveMetaData.backend.service.DeadLetterReplayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/dead-letters")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterReplayService replayService;
+
+    @Value("${app.kafka.dlt.replay.default-max-records:1000}")
+    private int defaultMaxRecords;
+
+    @Value("${app.kafka.dlt.replay.default-rate-per-second:50}")
+    private double defaultRatePerSecond;
+
+    // Starts moving dead letters back onto the registration topic, progress is polled with GET
+    @PostMapping("/replay")
+    public ResponseEntity<DeadLetterReplayStatus> replay(
+            @RequestParam(required = false) Integer maxRecords,
+            @RequestParam(required = false) Double ratePerSecond) {
+        DeadLetterReplayStatus status = replayService.start(
+                maxRecords != null ? maxRecords : defaultMaxRecords,
+                ratePerSecond != null ? ratePerSecond : defaultRatePerSecond);
+        return ResponseEntity.accepted().body(status);
+    }
+
+    @GetMapping("/replay")
+    public ResponseEntity<DeadLetterReplayStatus> replayStatus() {
+        return ResponseEntity.ok(replayService.status());
+    }
+}
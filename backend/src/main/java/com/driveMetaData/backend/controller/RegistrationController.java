@@ -1,15 +1,30 @@
 package com.driveMetaData.backend.controller;
 
+import com.driveMetaData.backend.dto.BatchRegistrationResponse;
+import com.driveMetaData.backend.dto.RateLimitDecision;
 import com.driveMetaData.backend.dto.RegistrationRequest;
+import com.driveMetaData.backend.dto.UserPage;
+import com.driveMetaData.backend.exception.DuplicateRegistrationException;
+import com.driveMetaData.backend.exception.RateLimitExceededException;
+import com.driveMetaData.backend.observability.HotPathSamplingFilter;
 import com.driveMetaData.backend.service.RateLimiterService;
 import com.driveMetaData.backend.service.RegistrationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -21,36 +36,121 @@ public class RegistrationController {
     private final RegistrationService registrationService;
     private final RateLimiterService rateLimiterService;
 
+    @Value("${app.users.max-page-size:500}")
+    private int maxPageSize;
+
     @PostMapping("/register")
     public ResponseEntity<String> registerUser(
             @RequestHeader("Client_id") String clientId,
             @Valid @RequestBody RegistrationRequest request) {
 
-        log.info("Received registration request from Client_id: {}", clientId);
+        log.info(HotPathSamplingFilter.HOT_PATH, "Received registration request from Client_id: {}", clientId);
 
         // Apply rate limiting
-        if (!rateLimiterService.allowRequest("client_" + clientId)) {
-            log.warn("Rate limit exceeded for Client_id: {}", clientId);
-            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded");
+        RateLimitDecision decision = rateLimiterService.tryAcquire(clientId, 1);
+        if (!decision.isAllowed()) {
+            log.warn(HotPathSamplingFilter.HOT_PATH, "Rate limit exceeded for Client_id: {}", clientId);
+            throw new RateLimitExceededException(decision);
         }
 
         // Process registration if rate limit allows
         try {
             registrationService.processRegistration(clientId, request);
-            return ResponseEntity.status(HttpStatus.ACCEPTED).body("Registration request received and queued.");
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header("X-RateLimit-Limit", String.valueOf(decision.getLimit()))
+                    .header("X-RateLimit-Remaining", String.valueOf(decision.getRemaining()))
+                    .body("Registration request received and queued.");
         } catch (IllegalStateException e) {
-            log.warn("Registration blocked for Client_id {}: {}", clientId, e.getMessage());
+            log.warn(HotPathSamplingFilter.HOT_PATH, "Registration blocked for Client_id {}: {}", clientId, e.getMessage());
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (DuplicateRegistrationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             log.error("Error processing registration for Client_id {}: {}", clientId, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An internal error occurred.");
         }
     }
 
-    // retrieve registered users for the frontend table
+    // Same contract as /register, but no thread waits on Redis or Kafka, the response is written once the broker acks
+    @PostMapping("/register/reactive")
+    public Mono<ResponseEntity<String>> registerUserReactive(
+            @RequestHeader("Client_id") String clientId,
+            @Valid @RequestBody RegistrationRequest request) {
+
+        log.info(HotPathSamplingFilter.HOT_PATH, "Received reactive registration request from Client_id: {}", clientId);
+
+        // Errors are mapped by GlobalExceptionHandler exactly like the blocking endpoint's
+        return rateLimiterService.tryAcquireReactive(clientId, 1)
+                .flatMap(decision -> {
+                    if (!decision.isAllowed()) {
+                        log.warn(HotPathSamplingFilter.HOT_PATH, "Rate limit exceeded for Client_id: {}", clientId);
+                        return Mono.error(new RateLimitExceededException(decision));
+                    }
+                    return registrationService.processRegistrationReactive(clientId, request)
+                            .thenReturn(ResponseEntity.status(HttpStatus.ACCEPTED)
+                                    .header("X-RateLimit-Limit", String.valueOf(decision.getLimit()))
+                                    .header("X-RateLimit-Remaining", String.valueOf(decision.getRemaining()))
+                                    .body("Registration request received and queued."));
+                });
+    }
+
+    // Many registrations in one call, as a JSON array or NDJSON, with a result per item
+    @PostMapping(value = "/register/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchRegistrationResponse> registerBatch(
+            @RequestHeader("Client_id") String clientId,
+            InputStream body) throws IOException {
+
+        List<RegistrationRequest> items = registrationService.readBatch(clientId, body);
+        log.info(HotPathSamplingFilter.HOT_PATH, "Received batch of {} registrations from Client_id: {}", items.size(), clientId);
+        Map<Integer, String> rejected = registrationService.validateBatch(items);
+
+        // One rate limiter call, charged with every item that passed validation. A batch with none queues
+        // nothing and is not charged
+        int valid = items.size() - rejected.size();
+        RateLimitDecision decision = null;
+        if (valid > 0) {
+            decision = rateLimiterService.tryAcquire(clientId, valid);
+            if (!decision.isAllowed()) {
+                log.warn(HotPathSamplingFilter.HOT_PATH, "Rate limit exceeded for Client_id {} by a batch of {}", clientId, items.size());
+                throw new RateLimitExceededException(decision);
+            }
+        }
+
+        BatchRegistrationResponse response = registrationService.processRegistrationBatch(clientId, items, rejected);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getAccepted() > 0 ? HttpStatus.ACCEPTED : HttpStatus.UNPROCESSABLE_ENTITY);
+        if (decision != null) {
+            builder.header("X-RateLimit-Limit", String.valueOf(decision.getLimit()))
+                    .header("X-RateLimit-Remaining", String.valueOf(decision.getRemaining()));
+        }
+        return builder.body(response);
+    }
+
+    // retrieve registered users for the frontend table, one page at a time
     @GetMapping("/users")
-    public ResponseEntity<?> getAllUsers() {
+    public ResponseEntity<UserPage> getAllUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String emailPrefix) {
         // Security is already handled by JWT filter
-        return ResponseEntity.ok(registrationService.getAllRegisteredUsers());
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        return ResponseEntity.ok(registrationService.findRegisteredUsers(after, pageSize, city, emailPrefix));
+    }
+
+    // export every matching user, streamed from a database cursor
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String emailPrefix) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"")
+                    .body(out -> registrationService.exportUsersAsCsv(city, emailPrefix, out));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> registrationService.exportUsersAsNdjson(city, emailPrefix, out));
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.driveMetaData.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResult {
+    // Position of the item in the submitted array or NDJSON stream
+    private int index;
+    private String email;
+    private boolean accepted;
+    // Why the item was not queued, null when accepted
+    private String reason;
+}
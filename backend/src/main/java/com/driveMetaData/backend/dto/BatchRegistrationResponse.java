@@ -4,9 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
-@NoArgsConstructor
 @AllArgsConstructor
-public class ClientStatusResponse {
-    private String status;
-}
\ No newline at end of file
+@NoArgsConstructor
+public class BatchRegistrationResponse {
+    private int accepted;
+    private int rejected;
+    private List<BatchItemResult> results;
+}
@@ -0,0 +1,24 @@
+package com.driveMetaData.backend.dto;
+
+import com.driveMetaData.backend.entity.Client;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientDetails {
+    private String clientId;
+    private String status;
+    private String tier;
+    private Integer maxBatchItems;
+    private Instant updatedAt;
+
+    public static ClientDetails from(Client client) {
+        return new ClientDetails(client.getClientId(), client.getStatus(), client.getTier(),
+                client.getMaxBatchItems(), client.getUpdatedAt());
+    }
+}
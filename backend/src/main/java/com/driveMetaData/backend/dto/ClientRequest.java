@@ -0,0 +1,20 @@
+package com.driveMetaData.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ClientRequest {
+    @NotBlank(message = "Status is mandatory")
+    @Pattern(regexp = "active|suspended|inactive", message = "Status must be active, suspended or inactive")
+    private String status;
+
+    @Size(max = 64, message = "Tier must be at most 64 characters")
+    private String tier;
+
+    @Positive(message = "Max batch items must be positive")
+    private Integer maxBatchItems;
+}
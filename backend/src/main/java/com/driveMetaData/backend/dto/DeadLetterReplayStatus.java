@@ -0,0 +1,20 @@
+package com.driveMetaData.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayStatus {
+    private boolean running;
+    private int requested;
+    private double ratePerSecond;
+    private long replayed;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,14 @@
+package com.driveMetaData.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RateLimitDecision {
+    private boolean allowed;
+    private long limit;
+    private long remaining;
+    // Milliseconds until the request could succeed, 0 when allowed, -1 when it never can
+    private long retryAfterMillis;
+}
@@ -0,0 +1,20 @@
+package com.driveMetaData.backend.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class RegistrationBatchResult {
+    private List<String> inserted = new ArrayList<>();
+    private List<String> updated = new ArrayList<>();
+    // Emails that already existed, or repeated within the batch, and were left untouched
+    private List<String> skipped = new ArrayList<>();
+
+    public void merge(RegistrationBatchResult other) {
+        inserted.addAll(other.getInserted());
+        updated.addAll(other.getUpdated());
+        skipped.addAll(other.getSkipped());
+    }
+}
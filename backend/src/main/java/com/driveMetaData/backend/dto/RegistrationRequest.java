@@ -5,18 +5,23 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import lombok.ToString;
 
+// Personal details are left out of toString, log lines identify a registration by its correlation ID
 @Data
 public class RegistrationRequest {
     @NotBlank(message = "Name is mandatory")
+    @ToString.Exclude
     private String name;
 
     @NotBlank(message = "Email is mandatory")
     @Email(message = "Email should be valid")
+    @ToString.Exclude
     private String email;
 
     @NotBlank(message = "Mobile is mandatory")
     @Pattern(regexp = "^\\d{10}$", message = "Mobile number must be 10 digits")
+    @ToString.Exclude
     private String mobile;
 
     @NotBlank(message = "City is mandatory")
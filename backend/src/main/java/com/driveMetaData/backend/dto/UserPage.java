@@ -0,0 +1,16 @@
+package com.driveMetaData.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPage {
+    private List<UserSummary> items;
+    // Pass as "after" to fetch the next page, null on the last page
+    private Long nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.driveMetaData.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSummary {
+    private Long id;
+    @ToString.Exclude
+    private String name;
+    @ToString.Exclude
+    private String email;
+    @ToString.Exclude
+    private String mobile;
+    private String city;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,6 +23,7 @@ public class AppUser {
     private String username;
 
     @Column(nullable = false)
+    @ToString.Exclude
     private String password;
 
     @ElementCollection(fetch = FetchType.EAGER)
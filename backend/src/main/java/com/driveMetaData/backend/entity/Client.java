@@ -0,0 +1,38 @@
+package com.driveMetaData.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// A caller of the registration API, identified by the Client_id header
+@Entity
+@Table(name = "clients")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Client {
+
+    public static final String ACTIVE = "active";
+
+    @Id
+    @Column(name = "client_id", length = 64)
+    private String clientId;
+
+    // active, suspended or inactive, only active clients may register
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    // Rate limit tier, null falls back to app.ratelimit.client-tiers and then the default tier
+    @Column(length = 64)
+    private String tier;
+
+    // Most registrations in one batch call, null leaves app.registration.batch.max-items
+    @Column(name = "max_batch_items")
+    private Integer maxBatchItems;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -2,9 +2,12 @@ package com.driveMetaData.backend.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.ToString;
 
 @Entity
-@Table(name = "registrations")
+@Table(name = "registrations", indexes = {
+        @Index(name = "idx_registrations_city_id", columnList = "city, id")
+})
 @Data
 public class User {
     @Id
@@ -12,12 +15,15 @@ public class User {
     private Long id;
 
     @Column(nullable = false)
+    @ToString.Exclude
     private String name;
 
     @Column(nullable = false, unique = true)
+    @ToString.Exclude
     private String email;
 
     @Column(nullable = false)
+    @ToString.Exclude
     private String mobile;
 
     @Column(nullable = false)
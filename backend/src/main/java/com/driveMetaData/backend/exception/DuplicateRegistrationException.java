@@ -0,0 +1,8 @@
+package com.driveMetaData.backend.exception;
+
+public class DuplicateRegistrationException extends RuntimeException {
+
+    public DuplicateRegistrationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.driveMetaData.backend.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class LoginOverloadedException extends ResponseStatusException {
+
+    public LoginOverloadedException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Too many logins in progress, try again shortly");
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return headers;
+    }
+}
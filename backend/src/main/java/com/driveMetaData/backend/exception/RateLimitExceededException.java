@@ -0,0 +1,32 @@
+package com.driveMetaData.backend.exception;
+
+import com.driveMetaData.backend.dto.RateLimitDecision;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class RateLimitExceededException extends ResponseStatusException {
+
+    private final transient RateLimitDecision decision;
+
+    public RateLimitExceededException(RateLimitDecision decision) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded");
+        this.decision = decision;
+    }
+
+    public RateLimitDecision getDecision() {
+        return decision;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-RateLimit-Limit", String.valueOf(decision.getLimit()));
+        headers.set("X-RateLimit-Remaining", String.valueOf(decision.getRemaining()));
+        if (decision.getRetryAfterMillis() >= 0) {
+            // Retry-After is expressed in whole seconds, round up so clients never retry too early
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf((decision.getRetryAfterMillis() + 999) / 1000));
+        }
+        return headers;
+    }
+}
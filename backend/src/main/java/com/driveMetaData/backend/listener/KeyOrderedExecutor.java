@@ -0,0 +1,62 @@
+package com.driveMetaData.backend.listener;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs tasks on a fixed set of lanes, each drained by one thread. Tasks with equal keys always land on the same
+ * lane, so they run one after another in submission order while different keys run in parallel.
+ * {@link #execute} blocks while the lane is full, which holds the Kafka poll loop back instead of buffering.
+ */
+@Slf4j
+class KeyOrderedExecutor implements AutoCloseable {
+
+    private final List<BlockingQueue<Runnable>> lanes = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+
+    KeyOrderedExecutor(String threadNamePrefix, int laneCount, int laneCapacity) {
+        for (int i = 0; i < laneCount; i++) {
+            BlockingQueue<Runnable> lane = new ArrayBlockingQueue<>(laneCapacity);
+            Thread worker = new Thread(() -> drain(lane), threadNamePrefix + i);
+            worker.setDaemon(true);
+            lanes.add(lane);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    void execute(Object key, Runnable task) throws InterruptedException {
+        lanes.get(Math.floorMod(Objects.hashCode(key), lanes.size())).put(task);
+    }
+
+    int queued() {
+        return lanes.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    private void drain(BlockingQueue<Runnable> lane) {
+        while (!Thread.currentThread().isInterrupted()) {
+            Runnable task;
+            try {
+                task = lane.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Task failed on {}: {}", Thread.currentThread().getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    // Queued tasks are dropped, their records were never acknowledged and are delivered again
+    @Override
+    public void close() {
+        workers.forEach(Thread::interrupt);
+    }
+}
@@ -0,0 +1,112 @@
+package com.driveMetaData.backend.listener;
+
+import com.driveMetaData.backend.dto.RegistrationRequest;
+import com.driveMetaData.backend.observability.CorrelationId;
+import com.driveMetaData.backend.observability.HotPathSamplingFilter;
+import com.driveMetaData.backend.observability.PipelineMetrics;
+import com.driveMetaData.backend.service.RegistrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "app.kafka.consumer.batch.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class RegistrationBatchConsumer {
+
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(RegistrationBatchConsumer.class);
+
+    private final RegistrationService registrationService;
+    private final PipelineMetrics pipelineMetrics;
+
+    @KafkaListener(
+            topics = "${app.kafka.topic.registration}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "registrationBatchKafkaListenerContainerFactory"
+    )
+    public void listenRegistrationTopic(List<ConsumerRecord<String, RegistrationRequest>> records) {
+        long start = System.nanoTime();
+        List<ConsumerRecord<String, RegistrationRequest>> valid = new ArrayList<>(records.size());
+        ConsumerRecord<String, RegistrationRequest> undeserializable = null;
+        for (ConsumerRecord<String, RegistrationRequest> record : records) {
+            // ErrorHandlingDeserializer hands over undeserializable records with a null value
+            if (record.value() == null) {
+                undeserializable = record;
+                break;
+            }
+            valid.add(record);
+        }
+        if (!valid.isEmpty()) {
+            store(valid, start);
+        }
+        if (undeserializable != null) {
+            // The records before it are stored, the error handler commits them, sends this one to the dead
+            // letter topic with its deserialization headers and polls the rest of the batch again
+            log.error("Undeserializable message at partition {}:{}", undeserializable.partition(), undeserializable.offset());
+            throw new BatchListenerFailedException("Registration at " + undeserializable.partition() + ":"
+                    + undeserializable.offset() + " could not be deserialized", deserializationFailure(undeserializable), undeserializable);
+        }
+    }
+
+    private void store(List<ConsumerRecord<String, RegistrationRequest>> valid, long start) {
+        log.info(HotPathSamplingFilter.HOT_PATH, "Received batch of {} messages from Kafka", valid.size());
+        try (CorrelationId.Scope ignored = CorrelationId.open(null, batchTier(valid))) {
+            registrationService.saveRegistrations(valid.stream().map(ConsumerRecord::value).toList());
+        } catch (Exception e) {
+            // Duplicates are resolved in SQL, anything else that fails rolls back the batch, so retry row by row
+            log.error("Batch insert of {} registrations failed, retrying individually: {}", valid.size(), e.getMessage());
+            for (ConsumerRecord<String, RegistrationRequest> record : valid) {
+                try (CorrelationId.Scope ignored = CorrelationId.open(record.headers())) {
+                    registrationService.saveRegistration(record.value());
+                } catch (Exception recordFailure) {
+                    pipelineMetrics.consumerReceiveToCommit("failure", tierOf(record), start);
+                    // The error handler commits what came before, retries this record and then dead-letters it
+                    throw new BatchListenerFailedException("Registration at " + record.partition() + ":" + record.offset() + " failed",
+                            recordFailure, record);
+                }
+                recordStored(record, start);
+            }
+            return;
+        }
+        valid.forEach(record -> recordStored(record, start));
+    }
+
+    private static Throwable deserializationFailure(ConsumerRecord<?, ?> record) {
+        DeserializationException failure = SerializationUtils.getExceptionFromHeader(record,
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+        return failure != null ? failure : new IllegalStateException("Record has no value");
+    }
+
+    private void recordStored(ConsumerRecord<String, RegistrationRequest> record, long start) {
+        String tier = tierOf(record);
+        pipelineMetrics.consumerReceiveToCommit("success", tier, start);
+        pipelineMetrics.endToEnd(tier, record.timestamp());
+    }
+
+    private static String tierOf(ConsumerRecord<?, ?> record) {
+        String tier = CorrelationId.header(record.headers(), CorrelationId.TIER_KAFKA_HEADER);
+        return tier != null ? tier : PipelineMetrics.UNKNOWN_TIER;
+    }
+
+    // One insert covers the whole poll, its timer is tagged with the tier only when every record shares it
+    private static String batchTier(List<ConsumerRecord<String, RegistrationRequest>> records) {
+        String tier = tierOf(records.get(0));
+        for (ConsumerRecord<String, RegistrationRequest> record : records) {
+            if (!tier.equals(tierOf(record))) {
+                return "mixed";
+            }
+        }
+        return tier;
+    }
+}
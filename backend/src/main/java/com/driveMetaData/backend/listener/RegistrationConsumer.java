@@ -1,43 +1,48 @@
 package com.driveMetaData.backend.listener;
 
 import com.driveMetaData.backend.dto.RegistrationRequest;
+import com.driveMetaData.backend.observability.CorrelationId;
+import com.driveMetaData.backend.observability.HotPathSamplingFilter;
+import com.driveMetaData.backend.observability.PipelineMetrics;
 import com.driveMetaData.backend.service.RegistrationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnExpression("!${app.kafka.consumer.batch.enabled:false} && !${app.kafka.consumer.parallel.enabled:false}")
 @RequiredArgsConstructor
 @Slf4j
 public class RegistrationConsumer {
 
     private final RegistrationService registrationService;
+    private final PipelineMetrics pipelineMetrics;
 
     @KafkaListener(
             topics = "${app.kafka.topic.registration}",
             groupId = "${spring.kafka.consumer.group-id}",
             containerFactory = "registrationKafkaListenerContainerFactory"
     )
-    public void listenRegistrationTopic(
-            @Payload RegistrationRequest message,
-            @Header(name = KafkaHeaders.RECEIVED_PARTITION, required = false) Integer partition,
-            @Header(name = KafkaHeaders.OFFSET, required = false) Long offset) {
-
-        log.info("Received message from Kafka partition {}:{} - {}",
-                partition != null ? partition : "N/A",
-                offset != null ? offset : "N/A",
-                message);
-        try {
-            registrationService.saveRegistration(message);
-        } catch (Exception e) {
-            log.error("Error processing message from partition {}:{} - {}",
-                    partition != null ? partition : "N/A",
-                    offset != null ? offset : "N/A",
-                    e.getMessage(), e);
+    public void listenRegistrationTopic(ConsumerRecord<String, RegistrationRequest> record) {
+        long start = System.nanoTime();
+        try (CorrelationId.Scope ignored = CorrelationId.open(record.headers())) {
+            // Boxing the partition and offset would allocate even for a dropped line
+            if (log.isDebugEnabled()) {
+                log.debug("Received message from Kafka partition {}:{}", record.partition(), record.offset());
+            }
+            String tier = CorrelationId.currentTier();
+            try {
+                // A failure moves the record to the retry topics and finally to the dead-letter topic
+                registrationService.saveRegistration(record.value());
+            } catch (RuntimeException e) {
+                pipelineMetrics.consumerReceiveToCommit("failure", tier, start);
+                throw e;
+            }
+            pipelineMetrics.consumerReceiveToCommit("success", tier, start);
+            pipelineMetrics.endToEnd(tier, record.timestamp());
         }
     }
-}
\ No newline at end of file
+}
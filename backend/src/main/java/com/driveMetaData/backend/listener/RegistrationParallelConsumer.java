@@ -0,0 +1,154 @@
+package com.driveMetaData.backend.listener;
+
+import com.driveMetaData.backend.dto.RegistrationRequest;
+import com.driveMetaData.backend.observability.CorrelationId;
+import com.driveMetaData.backend.observability.HotPathSamplingFilter;
+import com.driveMetaData.backend.observability.PipelineMetrics;
+import com.driveMetaData.backend.service.RegistrationService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+/**
+ * Saves the records of each partition on a pool of workers instead of the listener thread. Records are spread
+ * by email, so registrations for one address are still saved in the order they were produced. Offsets are
+ * committed by the container only up to the oldest record that is not saved yet. A record that keeps failing
+ * is retried with backoff on its worker and then published to the dead-letter topic. If that fails too, the
+ * listener is stopped rather than committing past a record that was neither saved nor dead-lettered.
+ */
+@Component
+@ConditionalOnExpression("${app.kafka.consumer.parallel.enabled:false} && !${app.kafka.consumer.batch.enabled:false}")
+@RequiredArgsConstructor
+@Slf4j
+public class RegistrationParallelConsumer {
+
+    static final String LISTENER_ID = "registration-parallel-listener";
+
+    private final RegistrationService registrationService;
+    private final MeterRegistry meterRegistry;
+    private final BackOff retryBackOff;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+    private final PipelineMetrics pipelineMetrics;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Value("${app.kafka.consumer.parallel.workers:16}")
+    private int workers;
+
+    @Value("${app.kafka.consumer.parallel.queue-capacity:500}")
+    private int queueCapacity;
+
+    private KeyOrderedExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new KeyOrderedExecutor("registration-worker-", workers, queueCapacity);
+        Gauge.builder("registration.consumer.parallel.queued", executor, KeyOrderedExecutor::queued)
+                .description("Records received but not yet saved by the parallel consumer")
+                .register(meterRegistry);
+        log.info("Parallel registration consumer with {} workers", workers);
+    }
+
+    // The listener may be blocked handing a record to a full lane, so it is stopped while the workers still drain
+    @PreDestroy
+    public void shutdown() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container != null) {
+            container.stop();
+        }
+        executor.close();
+    }
+
+    @KafkaListener(
+            id = LISTENER_ID,
+            idIsGroup = false,
+            topics = "${app.kafka.topic.registration}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "registrationParallelKafkaListenerContainerFactory"
+    )
+    public void listenRegistrationTopic(ConsumerRecord<String, RegistrationRequest> record, Acknowledgment acknowledgment)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        RegistrationRequest message = record.value();
+        if (message == null) {
+            log.error("Skipping undeserializable message from partition {}:{}", record.partition(), record.offset());
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        executor.execute(message.getEmail(), () -> {
+            try (CorrelationId.Scope ignored = CorrelationId.open(record.headers())) {
+                boolean saved;
+                try {
+                    saved = saveWithRetries(record);
+                } catch (RuntimeException e) {
+                    // An interrupted worker is shutting down, the record is simply delivered again
+                    if (!Thread.currentThread().isInterrupted()) {
+                        stopListener(record, e, start);
+                    }
+                    return;
+                }
+                acknowledgment.acknowledge();
+                String tier = CorrelationId.currentTier();
+                pipelineMetrics.consumerReceiveToCommit(saved ? "success" : "dead-lettered", tier, start);
+                if (saved) {
+                    pipelineMetrics.endToEnd(tier, record.timestamp());
+                }
+            }
+        });
+    }
+
+    // Without an acknowledgment the container would commit nothing past this record while later ones keep
+    // arriving, stopping commits what was acknowledged and the record is delivered again on restart
+    private void stopListener(ConsumerRecord<String, RegistrationRequest> record, RuntimeException e, long start) {
+        pipelineMetrics.consumerReceiveToCommit("failure", CorrelationId.currentTier(), start);
+        log.error("Message from partition {}:{} could be neither saved nor dead-lettered, stopping the listener - {}",
+                record.partition(), record.offset(), e.getMessage(), e);
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container != null && container.isRunning()) {
+            // Asynchronously, a synchronous stop would wait for the listener thread, which may be waiting for this lane
+            container.stop(() -> log.warn("Parallel registration listener stopped, restart it to resume consumption"));
+        }
+    }
+
+    // Retries hold only this worker's lane, the partition keeps being consumed by the others
+    private boolean saveWithRetries(ConsumerRecord<String, RegistrationRequest> record) {
+        BackOffExecution backOff = retryBackOff.start();
+        while (true) {
+            try {
+                registrationService.saveRegistration(record.value());
+                return true;
+            } catch (Exception e) {
+                long waitMs = backOff.nextBackOff();
+                if (waitMs == BackOffExecution.STOP) {
+                    log.error("Giving up on message from partition {}:{}, sending it to the dead-letter topic - {}",
+                            record.partition(), record.offset(), e.getMessage());
+                    deadLetterRecoverer.accept(record, e);
+                    return false;
+                }
+                log.warn(HotPathSamplingFilter.HOT_PATH, "Error processing message from partition {}:{}, retrying in {} ms - {}",
+                        record.partition(), record.offset(), waitMs, e.getMessage());
+                try {
+                    Thread.sleep(waitMs);
+                } catch (InterruptedException interrupted) {
+                    // Shutting down, the record is not acknowledged and will be delivered again
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while retrying", interrupted);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.driveMetaData.backend.observability;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.MDC;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Correlation ID and client tier of the registration being handled. They live in the logging MDC while a
+ * request or a consumed record is processed, and travel from the producer to the consumer as Kafka headers.
+ */
+public final class CorrelationId {
+
+    public static final String HTTP_HEADER = "X-Correlation-Id";
+    public static final String KAFKA_HEADER = "correlation_id";
+    public static final String TIER_KAFKA_HEADER = "client_tier";
+    public static final String MDC_KEY = "correlationId";
+    public static final String TIER_MDC_KEY = "clientTier";
+
+    private CorrelationId() {
+    }
+
+    /**
+     * Restores the MDC entries it replaced when closed.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static String current() {
+        return MDC.get(MDC_KEY);
+    }
+
+    public static String currentTier() {
+        String tier = MDC.get(TIER_MDC_KEY);
+        return tier != null ? tier : PipelineMetrics.UNKNOWN_TIER;
+    }
+
+    public static Scope open(String correlationId, String tier) {
+        String previousId = MDC.get(MDC_KEY);
+        String previousTier = MDC.get(TIER_MDC_KEY);
+        put(MDC_KEY, correlationId);
+        put(TIER_MDC_KEY, tier);
+        return () -> {
+            put(MDC_KEY, previousId);
+            put(TIER_MDC_KEY, previousTier);
+        };
+    }
+
+    // Takes over the IDs a consumed record carries, records from older producers have none
+    public static Scope open(Headers headers) {
+        return open(header(headers, KAFKA_HEADER), header(headers, TIER_KAFKA_HEADER));
+    }
+
+    public static void addTo(Headers headers, String correlationId, String tier) {
+        if (correlationId != null) {
+            headers.add(KAFKA_HEADER, correlationId.getBytes(StandardCharsets.UTF_8));
+        }
+        if (tier != null) {
+            headers.add(TIER_KAFKA_HEADER, tier.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public static String header(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static void put(String key, String value) {
+        if (value != null) {
+            MDC.put(key, value);
+        } else {
+            MDC.remove(key);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.driveMetaData.backend.observability;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Runs ahead of Spring Security so every later stage, including the JWT filter, sees the request's
+ * correlation ID and client tier. A caller supplied {@code X-Correlation-Id} is kept when it is well formed,
+ * otherwise a new one is generated, and it is echoed on the response either way.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    // Ends up in log lines and Kafka headers, so anything else is replaced
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final PipelineMetrics pipelineMetrics;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String correlationId = request.getHeader(CorrelationId.HTTP_HEADER);
+        if (correlationId == null || !VALID_ID.matcher(correlationId).matches()) {
+            correlationId = UUID.randomUUID().toString();
+        }
+        response.setHeader(CorrelationId.HTTP_HEADER, correlationId);
+
+        try (CorrelationId.Scope ignored = CorrelationId.open(correlationId,
+                pipelineMetrics.tierOf(request.getHeader("Client_id")))) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
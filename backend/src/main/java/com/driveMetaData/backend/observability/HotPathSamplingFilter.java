@@ -0,0 +1,71 @@
+package com.driveMetaData.backend.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets each log statement marked {@link #HOT_PATH} through at most {@code maxPerSecond} times a second and
+ * drops the rest. As a turbo filter it runs before logback builds an event, so a dropped line is never
+ * formatted. Statements are told apart by their format string, which must therefore be a constant.
+ */
+public class HotPathSamplingFilter extends TurboFilter {
+
+    public static final Marker HOT_PATH = MarkerFactory.getMarker("HOT_PATH");
+
+    private static final LongAdder SUPPRESSED = new LongAdder();
+
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    private int maxPerSecond = 20;
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    // Lines dropped since startup, across every logger context
+    public static long suppressed() {
+        return SUPPRESSED.sum();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || format == null || (marker != HOT_PATH && !marker.contains(HOT_PATH))) {
+            return FilterReply.NEUTRAL;
+        }
+        // A line below the logger's level is dropped anyway and must not use up the budget
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (windows.computeIfAbsent(format, key -> new Window()).tryAcquire(System.currentTimeMillis() / 1000, maxPerSecond)) {
+            return FilterReply.NEUTRAL;
+        }
+        SUPPRESSED.increment();
+        return FilterReply.DENY;
+    }
+
+    private static final class Window {
+        private volatile long second;
+        private final AtomicInteger count = new AtomicInteger();
+
+        boolean tryAcquire(long now, int limit) {
+            if (second != now) {
+                synchronized (this) {
+                    if (second != now) {
+                        count.set(0);
+                        second = now;
+                    }
+                }
+            }
+            return count.incrementAndGet() <= limit;
+        }
+    }
+}
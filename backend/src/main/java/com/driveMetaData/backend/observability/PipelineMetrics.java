@@ -0,0 +1,97 @@
+package com.driveMetaData.backend.observability;
+
+import com.driveMetaData.backend.ratelimit.RateLimitPolicyResolver;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency timers for every stage of a registration, from the JWT filter to the database insert, each tagged
+ * with the stage's outcome and the rate limit tier of the calling {@code Client_id}. Tiers are configured, so
+ * the number of series stays bounded however many clients call.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String UNKNOWN_TIER = "unknown";
+
+    private final RateLimitPolicyResolver policyResolver;
+
+    private final Meter.MeterProvider<Timer> jwtFilter;
+    private final Meter.MeterProvider<Timer> rateLimitDecision;
+    private final Meter.MeterProvider<Timer> statusLookup;
+    private final Meter.MeterProvider<Timer> kafkaSendAck;
+    private final Meter.MeterProvider<Timer> consumerReceiveToCommit;
+    private final Meter.MeterProvider<Timer> endToEnd;
+    private final Meter.MeterProvider<Timer> dbInsert;
+
+    public PipelineMetrics(MeterRegistry meterRegistry, RateLimitPolicyResolver policyResolver) {
+        this.policyResolver = policyResolver;
+        jwtFilter = timer(meterRegistry, "registration.jwt.filter",
+                "Bearer token verification in the JWT filter");
+        rateLimitDecision = timer(meterRegistry, "registration.ratelimit.decision",
+                "Rate limit decision, from a local lease or a Redis script call");
+        statusLookup = timer(meterRegistry, "registration.client.status.lookup",
+                "Client lookup in the in-memory client registry");
+        kafkaSendAck = timer(meterRegistry, "registration.kafka.send.ack",
+                "Registration handed to the producer until the broker acknowledged it");
+        consumerReceiveToCommit = timer(meterRegistry, "registration.consumer.receive.to.commit",
+                "Registration received by a listener until it is stored and its offset may be committed");
+        endToEnd = timer(meterRegistry, "registration.end.to.end",
+                "Registration produced until it is stored, by the record timestamp");
+        dbInsert = timer(meterRegistry, "registration.db.insert",
+                "Upsert of consumed registrations into PostgreSQL");
+        FunctionCounter.builder("logging.hot.path.suppressed", HotPathSamplingFilter.class, type -> HotPathSamplingFilter.suppressed())
+                .description("Per-request log lines dropped by the hot path sampling filter")
+                .register(meterRegistry);
+    }
+
+    private static Meter.MeterProvider<Timer> timer(MeterRegistry meterRegistry, String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+
+    public String tierOf(String clientId) {
+        return clientId == null ? UNKNOWN_TIER : policyResolver.policyFor(clientId).getTier();
+    }
+
+    public void jwtFilter(String outcome, String tier, long startNanos) {
+        record(jwtFilter, outcome, tier, System.nanoTime() - startNanos);
+    }
+
+    public void rateLimitDecision(String outcome, String tier, long startNanos) {
+        record(rateLimitDecision, outcome, tier, System.nanoTime() - startNanos);
+    }
+
+    public void statusLookup(String outcome, String tier, long startNanos) {
+        record(statusLookup, outcome, tier, System.nanoTime() - startNanos);
+    }
+
+    public void kafkaSendAck(String outcome, String tier, long startNanos) {
+        record(kafkaSendAck, outcome, tier, System.nanoTime() - startNanos);
+    }
+
+    public void consumerReceiveToCommit(String outcome, String tier, long startNanos) {
+        record(consumerReceiveToCommit, outcome, tier, System.nanoTime() - startNanos);
+    }
+
+    // The record timestamp is the producer's wall clock, so skew between hosts shows up here
+    public void endToEnd(String tier, long producedAtMillis) {
+        record(endToEnd, "stored", tier, TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - producedAtMillis)));
+    }
+
+    public void dbInsert(String outcome, String tier, long startNanos) {
+        record(dbInsert, outcome, tier, System.nanoTime() - startNanos);
+    }
+
+    private static void record(Meter.MeterProvider<Timer> provider, String outcome, String tier, long nanos) {
+        provider.withTags("outcome", outcome, "tier", tier != null ? tier : UNKNOWN_TIER)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
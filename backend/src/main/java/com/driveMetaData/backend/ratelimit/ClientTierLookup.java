@@ -0,0 +1,10 @@
+package com.driveMetaData.backend.ratelimit;
+
+/**
+ * Where a client's rate limit tier is recorded, {@code null} when the client has none of its own.
+ */
+@FunctionalInterface
+public interface ClientTierLookup {
+
+    String tierOf(String clientId);
+}
@@ -0,0 +1,27 @@
+package com.driveMetaData.backend.ratelimit;
+
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Generic cell rate algorithm, one string per client holding the theoretical arrival time.
+ */
+@Component
+public class GcraAlgorithm implements RateLimitAlgorithm {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT = RateLimitAlgorithm.loadScript("gcra");
+
+    @Override
+    public String name() {
+        return "gcra";
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> script() {
+        return SCRIPT;
+    }
+}
@@ -0,0 +1,40 @@
+package com.driveMetaData.backend.ratelimit;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * A rate limiting algorithm evaluated atomically in Redis by a single Lua script.
+ * Every script takes the same arguments and returns {granted, remaining, retryAfterMillis},
+ * so the caller can switch algorithms per client tier without changing how it talks to Redis.
+ */
+public interface RateLimitAlgorithm {
+
+    /**
+     * @return the name used to select the algorithm in {@code app.ratelimit.*}
+     */
+    String name();
+
+    @SuppressWarnings("rawtypes")
+    RedisScript<List> script();
+
+    default String key(String clientId) {
+        return "rate_limit:" + name() + ":" + clientId;
+    }
+
+    default List<String> arguments(RateLimitPolicy policy, long permits, long maxPermits) {
+        return List.of(
+                String.valueOf(policy.getCapacity()),
+                String.valueOf(policy.getRefillRate()),
+                String.valueOf(policy.getRefillPeriodSeconds() * 1000L),
+                String.valueOf(permits),
+                String.valueOf(maxPermits));
+    }
+
+    @SuppressWarnings("rawtypes")
+    static RedisScript<List> loadScript(String name) {
+        return RedisScript.of(new ClassPathResource("scripts/" + name + ".lua"), List.class);
+    }
+}
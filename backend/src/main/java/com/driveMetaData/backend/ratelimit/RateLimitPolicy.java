@@ -0,0 +1,15 @@
+package com.driveMetaData.backend.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RateLimitPolicy {
+    private String tier;
+    private RateLimitAlgorithm algorithm;
+    // Bucket size, or requests per window for the sliding window algorithms
+    private int capacity;
+    private int refillRate;
+    private int refillPeriodSeconds;
+}
@@ -0,0 +1,83 @@
+package com.driveMetaData.backend.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the rate limit policy, and with it the algorithm, for a client from its tier. A tier recorded for the
+ * client in the client registry wins over {@code app.ratelimit.client-tiers}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitPolicyResolver {
+
+    private final RateLimitProperties properties;
+    private final List<RateLimitAlgorithm> algorithms;
+    private final ClientTierLookup clientTierLookup;
+
+    private Map<String, RateLimitPolicy> policies;
+    private RateLimitPolicy defaultPolicy;
+
+    @PostConstruct
+    public void init() {
+        Map<String, RateLimitAlgorithm> byName = algorithms.stream()
+                .collect(Collectors.toMap(RateLimitAlgorithm::name, Function.identity()));
+
+        Map<String, RateLimitPolicy> resolved = new HashMap<>();
+        properties.getTiers().forEach((tier, config) -> resolved.put(tier, toPolicy(tier, config, byName)));
+        if (!resolved.containsKey(properties.getDefaultTier())) {
+            resolved.put(properties.getDefaultTier(),
+                    toPolicy(properties.getDefaultTier(), new RateLimitProperties.Tier(), byName));
+        }
+
+        this.policies = Map.copyOf(resolved);
+        this.defaultPolicy = policies.get(properties.getDefaultTier());
+        policies.values().forEach(policy -> log.info("Rate limit tier '{}': {} capacity {} refill {}/{}s",
+                policy.getTier(), policy.getAlgorithm().name(), policy.getCapacity(),
+                policy.getRefillRate(), policy.getRefillPeriodSeconds()));
+    }
+
+    public RateLimitPolicy policyFor(String clientId) {
+        String tier = clientTierLookup.tierOf(clientId);
+        if (tier == null) {
+            tier = properties.getClientTiers().get(clientId);
+        }
+        return tier == null ? defaultPolicy : policies.getOrDefault(tier, defaultPolicy);
+    }
+
+    public RateLimitPolicy policyForTier(String tier) {
+        return tier == null ? defaultPolicy : policies.getOrDefault(tier, defaultPolicy);
+    }
+
+    public boolean hasTier(String tier) {
+        return policies.containsKey(tier);
+    }
+
+    private RateLimitPolicy toPolicy(String tier, RateLimitProperties.Tier config, Map<String, RateLimitAlgorithm> byName) {
+        String algorithmName = config.getAlgorithm() != null ? config.getAlgorithm() : properties.getAlgorithm();
+        RateLimitAlgorithm algorithm = byName.get(algorithmName);
+        if (algorithm == null) {
+            throw new IllegalStateException("Unknown rate limit algorithm '" + algorithmName + "' for tier '"
+                    + tier + "', expected one of " + byName.keySet());
+        }
+        int refillRate = config.getRefillRate() != null ? config.getRefillRate() : properties.getRefillRate();
+        int refillPeriodSeconds = config.getRefillPeriodSeconds() != null ? config.getRefillPeriodSeconds() : properties.getRefillPeriodSeconds();
+        // The scripts divide the period by the rate, a zero would only surface as a Lua error on a live request
+        if (refillRate <= 0 || refillPeriodSeconds <= 0) {
+            throw new IllegalStateException("Rate limit tier '" + tier + "' needs a positive refill-rate and "
+                    + "refill-period-seconds, got " + refillRate + " per " + refillPeriodSeconds + "s");
+        }
+        return new RateLimitPolicy(tier, algorithm,
+                config.getCapacity() != null ? config.getCapacity() : properties.getCapacity(),
+                refillRate, refillPeriodSeconds);
+    }
+}
@@ -0,0 +1,44 @@
+package com.driveMetaData.backend.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ratelimit")
+public class RateLimitProperties {
+
+    // Defaults for every tier, each tier may override any of them
+    private String algorithm = "token-bucket";
+    private int capacity = 10;
+    private int refillRate = 10;
+    private int refillPeriodSeconds = 60;
+
+    private String defaultTier = "standard";
+    private Map<String, Tier> tiers = new HashMap<>();
+    // Client_id -> tier name, clients not listed use the default tier
+    private Map<String, String> clientTiers = new HashMap<>();
+
+    private Lease lease = new Lease();
+
+    @Data
+    public static class Tier {
+        private String algorithm;
+        private Integer capacity;
+        private Integer refillRate;
+        private Integer refillPeriodSeconds;
+    }
+
+    @Data
+    public static class Lease {
+        private int size = 1;
+        private long ttlMs = 1000;
+        private int expectedNodes = 1;
+        private int maxOvershoot = 0;
+        private int maxEntries = 100000;
+    }
+}
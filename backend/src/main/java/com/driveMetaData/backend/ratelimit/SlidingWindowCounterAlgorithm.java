@@ -0,0 +1,27 @@
+package com.driveMetaData.backend.ratelimit;
+
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Approximate sliding window from the current and previous fixed window counts, one hash per client.
+ */
+@Component
+public class SlidingWindowCounterAlgorithm implements RateLimitAlgorithm {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT = RateLimitAlgorithm.loadScript("sliding_window_counter");
+
+    @Override
+    public String name() {
+        return "sliding-window-counter";
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> script() {
+        return SCRIPT;
+    }
+}
@@ -0,0 +1,27 @@
+package com.driveMetaData.backend.ratelimit;
+
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Exact sliding window kept as a sorted set of admission times, memory grows with the limit.
+ */
+@Component
+public class SlidingWindowLogAlgorithm implements RateLimitAlgorithm {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT = RateLimitAlgorithm.loadScript("sliding_window_log");
+
+    @Override
+    public String name() {
+        return "sliding-window-log";
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> script() {
+        return SCRIPT;
+    }
+}
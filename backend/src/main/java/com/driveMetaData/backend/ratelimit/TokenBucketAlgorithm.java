@@ -0,0 +1,27 @@
+package com.driveMetaData.backend.ratelimit;
+
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Token bucket with continuous refill, one hash per client.
+ */
+@Component
+public class TokenBucketAlgorithm implements RateLimitAlgorithm {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT = RateLimitAlgorithm.loadScript("token_bucket");
+
+    @Override
+    public String name() {
+        return "token-bucket";
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> script() {
+        return SCRIPT;
+    }
+}
@@ -0,0 +1,9 @@
+package com.driveMetaData.backend.repository;
+
+import com.driveMetaData.backend.entity.Client;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClientRepository extends JpaRepository<Client, String> {
+}
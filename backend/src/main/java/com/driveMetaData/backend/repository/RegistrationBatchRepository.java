@@ -0,0 +1,111 @@
+package com.driveMetaData.backend.repository;
+
+import com.driveMetaData.backend.dto.RegistrationBatchResult;
+import com.driveMetaData.backend.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk writes for the registrations table. Goes through JDBC directly because Hibernate
+ * cannot batch inserts for entities with IDENTITY ids; ids are still assigned by the database.
+ * Duplicate emails are resolved by PostgreSQL with ON CONFLICT instead of failing the transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RegistrationBatchRepository {
+
+    public enum DuplicateMode {
+        // Keep the existing row
+        SKIP,
+        // Overwrite name, mobile and city of the existing row
+        UPDATE
+    }
+
+    // One statement per chunk: the rows travel as four arrays, RETURNING tells which ones were written
+    private static final String INSERT_SQL =
+            "INSERT INTO registrations (name, email, mobile, city) "
+                    + "SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::text[]) ";
+
+    private static final String SKIP_SQL = INSERT_SQL
+            + "ON CONFLICT (email) DO NOTHING RETURNING email, true";
+
+    // xmax is 0 only for freshly inserted rows
+    private static final String UPDATE_SQL = INSERT_SQL
+            + "ON CONFLICT (email) DO UPDATE SET name = EXCLUDED.name, mobile = EXCLUDED.mobile, city = EXCLUDED.city "
+            + "RETURNING email, (xmax = 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.registration.jdbc-batch-size:500}")
+    private int jdbcBatchSize;
+
+    public RegistrationBatchResult upsertAll(List<User> users, DuplicateMode mode) {
+        RegistrationBatchResult result = new RegistrationBatchResult();
+
+        // ON CONFLICT cannot touch the same row twice in one statement, so collapse repeats first
+        Map<String, User> unique = new LinkedHashMap<>();
+        for (User user : users) {
+            if (mode == DuplicateMode.UPDATE) {
+                User replaced = unique.remove(user.getEmail());
+                if (replaced != null) {
+                    result.getSkipped().add(replaced.getEmail());
+                }
+                unique.put(user.getEmail(), user);
+            } else if (unique.putIfAbsent(user.getEmail(), user) != null) {
+                result.getSkipped().add(user.getEmail());
+            }
+        }
+
+        List<User> rows = new ArrayList<>(unique.values());
+        for (int from = 0; from < rows.size(); from += jdbcBatchSize) {
+            List<User> chunk = rows.subList(from, Math.min(rows.size(), from + jdbcBatchSize));
+            result.merge(upsertChunk(chunk, mode));
+        }
+        return result;
+    }
+
+    private RegistrationBatchResult upsertChunk(List<User> chunk, DuplicateMode mode) {
+        String sql = mode == DuplicateMode.UPDATE ? UPDATE_SQL : SKIP_SQL;
+        RegistrationBatchResult result = new RegistrationBatchResult();
+        Set<String> written = new HashSet<>();
+
+        jdbcTemplate.query(connection -> prepare(connection, sql, chunk), rs -> {
+            String email = rs.getString(1);
+            written.add(email);
+            if (rs.getBoolean(2)) {
+                result.getInserted().add(email);
+            } else {
+                result.getUpdated().add(email);
+            }
+        });
+
+        for (User user : chunk) {
+            if (!written.contains(user.getEmail())) {
+                result.getSkipped().add(user.getEmail());
+            }
+        }
+        return result;
+    }
+
+    private PreparedStatement prepare(Connection connection, String sql, Collection<User> chunk) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql);
+        ps.setArray(1, connection.createArrayOf("text", chunk.stream().map(User::getName).toArray()));
+        ps.setArray(2, connection.createArrayOf("text", chunk.stream().map(User::getEmail).toArray()));
+        ps.setArray(3, connection.createArrayOf("text", chunk.stream().map(User::getMobile).toArray()));
+        ps.setArray(4, connection.createArrayOf("text", chunk.stream().map(User::getCity).toArray()));
+        return ps;
+    }
+}
@@ -0,0 +1,95 @@
+package com.driveMetaData.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Durable queue of serialized registration records waiting to be published to Kafka. Rows are claimed with
+ * {@code FOR UPDATE SKIP LOCKED} and deleted in the same statement, so the caller's transaction decides whether
+ * a claimed batch is gone for good or returns to the table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RegistrationOutboxRepository {
+
+    private static final String CREATE_SQL = """
+            CREATE TABLE IF NOT EXISTS registration_outbox (
+                id BIGSERIAL PRIMARY KEY,
+                message_key TEXT,
+                payload BYTEA NOT NULL,
+                correlation_id TEXT,
+                client_tier TEXT,
+                created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+            )""";
+
+    // Tables created before records carried tracing headers
+    private static final String ADD_TRACING_COLUMNS_SQL = """
+            ALTER TABLE registration_outbox
+                ADD COLUMN IF NOT EXISTS correlation_id TEXT,
+                ADD COLUMN IF NOT EXISTS client_tier TEXT""";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO registration_outbox (message_key, payload, correlation_id, client_tier) VALUES (?, ?, ?, ?)";
+
+    private static final String CLAIM_SQL = """
+            DELETE FROM registration_outbox
+            WHERE id IN (SELECT id FROM registration_outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)
+            RETURNING id, message_key, payload, correlation_id, client_tier""";
+
+    // Estimate from the id range, exact unless a relay is holding a claim, and cheap on a large backlog
+    private static final String PENDING_SQL = "SELECT COALESCE(MAX(id) - MIN(id) + 1, 0) FROM registration_outbox";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record OutboxRecord(long id, String key, byte[] payload, String correlationId, String clientTier) {
+    }
+
+    public void createTableIfMissing() {
+        jdbcTemplate.execute(CREATE_SQL);
+        jdbcTemplate.execute(ADD_TRACING_COLUMNS_SQL);
+    }
+
+    public void append(String key, byte[] payload, String correlationId, String clientTier) {
+        jdbcTemplate.update(INSERT_SQL, key, payload, correlationId, clientTier);
+    }
+
+    // One JDBC batch, rewritten by the driver into multi-row inserts
+    public void appendAll(List<String> keys, List<byte[]> payloads, String correlationId, String clientTier) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, keys.get(i));
+                ps.setBytes(2, payloads.get(i));
+                ps.setString(3, correlationId);
+                ps.setString(4, clientTier);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return keys.size();
+            }
+        });
+    }
+
+    // Must run inside a transaction, rolling it back puts the records back in the queue
+    public List<OutboxRecord> claim(int limit) {
+        List<OutboxRecord> claimed = jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new OutboxRecord(rs.getLong("id"), rs.getString("message_key"), rs.getBytes("payload"),
+                        rs.getString("correlation_id"), rs.getString("client_tier")),
+                limit);
+        // RETURNING gives no ordering guarantee, relaying in id order keeps per-email order
+        claimed.sort((a, b) -> Long.compare(a.id(), b.id()));
+        return claimed;
+    }
+
+    public long pending() {
+        Long pending = jdbcTemplate.queryForObject(PENDING_SQL, Long.class);
+        return pending == null ? 0 : pending;
+    }
+}
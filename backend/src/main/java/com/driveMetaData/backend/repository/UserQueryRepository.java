@@ -0,0 +1,68 @@
+package com.driveMetaData.backend.repository;
+
+import com.driveMetaData.backend.dto.UserSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read side of the registrations table. Rows map straight to {@link UserSummary} so no managed
+ * entities are built, and pages are addressed by the last seen id instead of an offset.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserQueryRepository {
+
+    private static final RowMapper<UserSummary> SUMMARY_MAPPER = (rs, rowNum) -> new UserSummary(
+            rs.getLong("id"), rs.getString("name"), rs.getString("email"), rs.getString("mobile"), rs.getString("city"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<UserSummary> findPage(Long afterId, int limit, String city, String emailPrefix) {
+        List<Object> args = new ArrayList<>();
+        String sql = select(afterId, city, emailPrefix, args) + " LIMIT ?";
+        args.add(limit);
+        return jdbcTemplate.query(sql, SUMMARY_MAPPER, args.toArray());
+    }
+
+    /**
+     * Streams every matching row through a server-side cursor. Must run inside a transaction,
+     * PostgreSQL only honours the fetch size when autocommit is off.
+     */
+    public void streamAll(String city, String emailPrefix, int fetchSize, RowCallbackHandler handler) {
+        List<Object> args = new ArrayList<>();
+        String sql = select(null, city, emailPrefix, args);
+
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(fetchSize);
+        streaming.query(sql, handler, args.toArray());
+    }
+
+    private String select(Long afterId, String city, String emailPrefix, List<Object> args) {
+        StringBuilder sql = new StringBuilder("SELECT id, name, email, mobile, city FROM registrations WHERE 1 = 1");
+        if (afterId != null) {
+            sql.append(" AND id > ?");
+            args.add(afterId);
+        }
+        if (city != null) {
+            // Served by idx_registrations_city_id
+            sql.append(" AND city = ?");
+            args.add(city);
+        }
+        if (emailPrefix != null) {
+            // Served by idx_registrations_email_prefix (text_pattern_ops)
+            sql.append(" AND email LIKE ?");
+            args.add(escapeLike(emailPrefix) + "%");
+        }
+        return sql.append(" ORDER BY id").toString();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
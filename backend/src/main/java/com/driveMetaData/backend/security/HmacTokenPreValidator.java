@@ -0,0 +1,144 @@
+package com.driveMetaData.backend.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Cheap checks on the raw bytes of an HS256 token that run before any claims mapping:
+ * shape, header, HMAC signature and the {@code exp} claim. Malformed, tampered and expired
+ * tokens are rejected here in microseconds; tokens that pass still go through the full parser.
+ */
+final class HmacTokenPreValidator {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    // The only header this application issues, {"alg":"HS256"}
+    private static final String HS256_HEADER = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.US_ASCII));
+
+    private static final byte[] EXP_FIELD = "\"exp\"".getBytes(StandardCharsets.US_ASCII);
+
+    private final Mac prototype;
+
+    HmacTokenPreValidator(byte[] secret) {
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(secret, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+
+    void check(String token, long nowMillis) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || secondDot == token.length() - 1 || token.indexOf('.', secondDot + 1) >= 0) {
+            throw new MalformedJwtException("JWT must consist of three non-empty parts");
+        }
+
+        // Token characters are base64url, so every char maps to one byte
+        byte[] raw = new byte[token.length()];
+        for (int i = 0; i < raw.length; i++) {
+            raw[i] = (byte) token.charAt(i);
+        }
+
+        if (firstDot != HS256_HEADER.length() || !token.startsWith(HS256_HEADER)) {
+            String header = new String(decode(raw, 0, firstDot), StandardCharsets.UTF_8);
+            if (!header.replace(" ", "").contains("\"alg\":\"HS256\"")) {
+                throw new UnsupportedJwtException("Only HS256 signed tokens are accepted");
+            }
+        }
+
+        Mac mac = mac();
+        mac.update(raw, 0, secondDot);
+        byte[] expected = mac.doFinal();
+        byte[] actual = decode(raw, secondDot + 1, raw.length - secondDot - 1);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new SignatureException("JWT signature does not match locally computed signature");
+        }
+
+        long exp = readExp(decode(raw, firstDot + 1, secondDot - firstDot - 1));
+        if (exp >= 0 && exp * 1000 <= nowMillis) {
+            throw new ExpiredJwtException(null, null, "JWT expired at " + exp + " (epoch seconds)");
+        }
+    }
+
+    // A clone is cheaper than Mac.getInstance and keeps no per-thread state around
+    private Mac mac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(ALGORITHM + " provider does not support clone", e);
+        }
+    }
+
+    private static byte[] decode(byte[] raw, int offset, int length) {
+        try {
+            ByteBuffer decoded = Base64.getUrlDecoder().decode(ByteBuffer.wrap(raw, offset, length));
+            byte[] bytes = new byte[decoded.remaining()];
+            decoded.get(bytes);
+            return bytes;
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("JWT part is not valid base64url", e);
+        }
+    }
+
+    // Finds the "exp" key in the payload without mapping the JSON, -1 when absent
+    private static long readExp(byte[] payload) {
+        outer:
+        for (int i = 0; i <= payload.length - EXP_FIELD.length; i++) {
+            for (int j = 0; j < EXP_FIELD.length; j++) {
+                if (payload[i + j] != EXP_FIELD[j]) {
+                    continue outer;
+                }
+            }
+            // A key follows '{' or ',' and is followed by ':', anything else is a string value
+            int before = skipWhitespaceBackwards(payload, i - 1);
+            int p = skipWhitespace(payload, i + EXP_FIELD.length);
+            if (before < 0 || (payload[before] != '{' && payload[before] != ',')
+                    || p >= payload.length || payload[p] != ':') {
+                continue;
+            }
+            p = skipWhitespace(payload, p + 1);
+            long value = 0;
+            int digits = 0;
+            while (p < payload.length && payload[p] >= '0' && payload[p] <= '9') {
+                value = value * 10 + (payload[p++] - '0');
+                digits++;
+            }
+            if (digits == 0) {
+                throw new MalformedJwtException("JWT exp claim is not a number");
+            }
+            return value;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(byte[] payload, int p) {
+        while (p < payload.length && isWhitespace(payload[p])) {
+            p++;
+        }
+        return p;
+    }
+
+    private static int skipWhitespaceBackwards(byte[] payload, int p) {
+        while (p >= 0 && isWhitespace(payload[p])) {
+            p--;
+        }
+        return p;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+}
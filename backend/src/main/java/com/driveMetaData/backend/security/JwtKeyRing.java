@@ -0,0 +1,242 @@
+package com.driveMetaData.backend.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing and verification keys for {@link JwtUtil}, selected by {@code app.jwt.algorithm}.
+ * <p>
+ * HS256 uses {@code app.jwt.secret} and no key id. ES256 and EdDSA load every key entry of a PKCS12 keystore,
+ * the alias becomes the {@code kid}. Tokens are signed with {@code app.jwt.keystore.active-kid}, or with the
+ * entry whose certificate is newest when that is not set, and every entry stays valid for verification.
+ * The keystore is re-read when its modification time changes, so a key is rotated by adding the new entry,
+ * and removing the old one once its last tokens have expired. Other nodes only need the public keys from
+ * {@code /.well-known/jwks.json}.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    @Value("${app.jwt.algorithm:HS256}")
+    private String algorithm;
+
+    @Value("${app.jwt.secret}")
+    private String secret;
+
+    @Value("${app.jwt.keystore.path:}")
+    private String keystorePath;
+
+    @Value("${app.jwt.keystore.password:}")
+    private String keystorePassword;
+
+    @Value("${app.jwt.keystore.active-kid:}")
+    private String activeKid;
+
+    @Value("${app.jwt.keystore.reload-interval-ms:30000}")
+    private long reloadIntervalMs;
+
+    private SecureDigestAlgorithm<Key, Key> signatureAlgorithm;
+
+    private volatile KeySet snapshot;
+
+    private FileTime loadedModifiedTime;
+
+    private ScheduledExecutorService reloader;
+
+    // One consistent view of the ring, replaced as a whole on reload
+    private record KeySet(String activeKid, Key signingKey, Map<String, Key> verificationKeys) {
+    }
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        if (!List.of("HS256", "ES256", "EdDSA").contains(algorithm)) {
+            throw new IllegalStateException("Unsupported app.jwt.algorithm " + algorithm + ", use HS256, ES256 or EdDSA");
+        }
+        signatureAlgorithm = (SecureDigestAlgorithm<Key, Key>) Jwts.SIG.get().forKey(algorithm);
+
+        if (isSymmetric()) {
+            Key key = Keys.hmacShaKeyFor(secret.getBytes());
+            snapshot = new KeySet(null, key, Map.of());
+        } else if (keystorePath.isBlank()) {
+            snapshot = ephemeralKeys();
+        } else {
+            snapshot = loadKeystore();
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "jwt-keystore-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reloadIfModified, reloadIntervalMs, reloadIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("JWT signing with {}{}", algorithm, isSymmetric() ? "" : " using key id " + snapshot.activeKid());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    public String algorithm() {
+        return algorithm;
+    }
+
+    public boolean isSymmetric() {
+        return "HS256".equals(algorithm);
+    }
+
+    public SecureDigestAlgorithm<Key, Key> signatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    public String activeKid() {
+        return snapshot.activeKid();
+    }
+
+    public Key signingKey() {
+        return snapshot.signingKey();
+    }
+
+    /**
+     * @return the key that verifies tokens signed under {@code kid}, or null when the ring does not know it
+     */
+    public Key verificationKey(String kid) {
+        KeySet keys = snapshot;
+        if (isSymmetric()) {
+            return keys.signingKey();
+        }
+        return kid == null ? null : keys.verificationKeys().get(kid);
+    }
+
+    // Public halves of the ring in JWK form, the HMAC secret is never published
+    public List<Map<String, ?>> publicJwks() {
+        return snapshot.verificationKeys().entrySet().stream()
+                .<Map<String, ?>>map(entry -> Jwks.builder()
+                        .key((PublicKey) entry.getValue())
+                        .id(entry.getKey())
+                        .algorithm(algorithm)
+                        .publicKeyUse("sig")
+                        .build())
+                .toList();
+    }
+
+    private void reloadIfModified() {
+        try {
+            FileTime modified = Files.getLastModifiedTime(Path.of(keystorePath));
+            if (modified.equals(loadedModifiedTime)) {
+                return;
+            }
+            KeySet reloaded = loadKeystore();
+            KeySet previous = snapshot;
+            snapshot = reloaded;
+            log.info("Reloaded JWT keystore: active key id {} (was {}), {} verification keys",
+                    reloaded.activeKid(), previous.activeKid(), reloaded.verificationKeys().size());
+        } catch (Exception e) {
+            // Keep serving with the last good keys, a half-written file is picked up on the next poll
+            log.error("Could not reload JWT keystore {}: {}", keystorePath, e.getMessage());
+        }
+    }
+
+    private KeySet loadKeystore() {
+        Path path = Path.of(keystorePath);
+        char[] password = keystorePassword.toCharArray();
+        try (InputStream in = Files.newInputStream(path)) {
+            FileTime modified = Files.getLastModifiedTime(path);
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, password);
+
+            Map<String, Key> verificationKeys = new HashMap<>();
+            Map<String, PrivateKey> signingKeys = new HashMap<>();
+            String newest = null;
+            Date newestNotBefore = null;
+            for (String alias : Collections.list(keyStore.aliases())) {
+                if (!keyStore.isKeyEntry(alias)) {
+                    continue;
+                }
+                Key key = keyStore.getKey(alias, password);
+                Certificate certificate = keyStore.getCertificate(alias);
+                if (!(key instanceof PrivateKey privateKey) || certificate == null || !supports(privateKey)) {
+                    log.warn("Skipping keystore entry {}, it is not a {} key pair", alias, algorithm);
+                    continue;
+                }
+                signingKeys.put(alias, privateKey);
+                verificationKeys.put(alias, certificate.getPublicKey());
+                Date notBefore = certificate instanceof X509Certificate x509 ? x509.getNotBefore() : new Date(0);
+                if (newestNotBefore == null || notBefore.after(newestNotBefore)) {
+                    newest = alias;
+                    newestNotBefore = notBefore;
+                }
+            }
+
+            String kid = activeKid.isBlank() ? newest : activeKid;
+            if (kid == null || !signingKeys.containsKey(kid)) {
+                throw new IllegalStateException("Keystore " + keystorePath + " has no " + algorithm + " key for id " + kid);
+            }
+            loadedModifiedTime = modified;
+            return new KeySet(kid, signingKeys.get(kid), Map.copyOf(verificationKeys));
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot load JWT keystore " + keystorePath, e);
+        }
+    }
+
+    private boolean supports(PrivateKey key) {
+        return switch (algorithm) {
+            case "ES256" -> "EC".equals(key.getAlgorithm());
+            case "EdDSA" -> "Ed25519".equals(key.getAlgorithm()) || "EdDSA".equals(key.getAlgorithm());
+            default -> false;
+        };
+    }
+
+    private KeySet ephemeralKeys() {
+        try {
+            KeyPairGenerator generator;
+            if ("ES256".equals(algorithm)) {
+                generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            } else {
+                generator = KeyPairGenerator.getInstance("Ed25519");
+            }
+            KeyPair pair = generator.generateKeyPair();
+            String kid = "ephemeral-" + UUID.randomUUID();
+            log.warn("No app.jwt.keystore.path set, signing with a generated {} key. Tokens will not survive a restart "
+                    + "and only validate elsewhere through the JWKS endpoint", algorithm);
+            return new KeySet(kid, pair.getPrivate(), Map.of(kid, pair.getPublic()));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot generate " + algorithm + " key pair", e);
+        }
+    }
+}
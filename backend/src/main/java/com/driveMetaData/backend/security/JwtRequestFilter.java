@@ -1,5 +1,10 @@
 package com.driveMetaData.backend.security;
 
+import com.driveMetaData.backend.observability.CorrelationId;
+import com.driveMetaData.backend.observability.HotPathSamplingFilter;
+import com.driveMetaData.backend.observability.PipelineMetrics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,56 +12,85 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtRequestFilter extends OncePerRequestFilter {
-    
+
     private final JwtUtil jwtUtil;
     private final UserDetailsServiceImpl userDetailsService;
+    private final TokenPrincipalCache principalCache;
+    private final PipelineMetrics pipelineMetrics;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        
-        final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        final String authorizationHeader = request.getHeader("Authorization");
 
-        // Extract JWT token from Authorization header
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                log.error("Error extracting username from token", e);
-            }
-        }
+        // Extract JWT token from Authorization header and set authentication in security context
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            long start = System.nanoTime();
+            String jwt = authorizationHeader.substring(7);
+            UserDetails userDetails = resolvePrincipal(jwt);
+            pipelineMetrics.jwtFilter(userDetails != null ? "authenticated" : "rejected", CorrelationId.currentTier(), start);
 
-        // Validate token and set authentication in security context
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
-                
+
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                
-                log.info("Authenticated user: {}", username);
+
+                log.debug("Authenticated user: {}", userDetails.getUsername());
             }
         }
-        
+
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails resolvePrincipal(String jwt) {
+        String tokenHash = TokenPrincipalCache.hash(jwt);
+        UserDetails cached = principalCache.get(tokenHash);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Signature and expiry are verified here, the token is parsed exactly once
+        Claims claims;
+        try {
+            claims = jwtUtil.parseToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn(HotPathSamplingFilter.HOT_PATH, "Rejected JWT: {}", e.getMessage());
+            return null;
+        }
+
+        UserDetails userDetails = principalFromClaims(claims);
+        principalCache.put(tokenHash, userDetails, claims.getExpiration().getTime());
+        return userDetails;
+    }
+
+    private UserDetails principalFromClaims(Claims claims) {
+        Object roles = claims.get(JwtUtil.ROLES_CLAIM);
+        if (!(roles instanceof List<?> roleList)) {
+            // Tokens issued before roles were embedded still need the database once
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        List<SimpleGrantedAuthority> authorities = roleList.stream()
+                .map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                .toList();
+        return new User(claims.getSubject(), "", authorities);
+    }
 }
@@ -1,34 +1,58 @@
 package com.driveMetaData.backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 @Component
+@RequiredArgsConstructor
 public class JwtUtil {
 
-    @Value("${app.jwt.secret}")
-    private String secret;
+    public static final String ROLES_CLAIM = "roles";
+
+    private final JwtKeyRing keyRing;
 
     @Value("${app.jwt.expiration-ms}")
     private long expirationMs;
 
-    private Key key;
+    // Parsers are immutable and thread-safe, building one per call re-resolves the key every time
+    private JwtParser parser;
+
+    // Only HS256 has a cheap raw-bytes pre-check, asymmetric tokens go straight to the parser
+    private HmacTokenPreValidator preValidator;
 
     @PostConstruct
     public void init() {
-        this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        // The locator asks the ring on every parse, so reloaded keys apply without rebuilding the parser
+        Locator<Key> keyLocator = header -> {
+            if (!keyRing.algorithm().equals(header.getAlgorithm())) {
+                throw new UnsupportedJwtException("Tokens signed with " + header.getAlgorithm() + " are not accepted");
+            }
+            String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+            Key key = keyRing.verificationKey(kid);
+            if (key == null) {
+                throw new UnsupportedJwtException("Unknown signing key id " + kid);
+            }
+            return key;
+        };
+        this.parser = Jwts.parser().keyLocator(keyLocator).build();
+        this.preValidator = keyRing.isSymmetric() ? new HmacTokenPreValidator(keyRing.signingKey().getEncoded()) : null;
     }
 
     public String extractUsername(String token) {
@@ -44,8 +68,21 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verifies the signature and expiry and returns every claim, so callers parse a token once.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseToken(String token) {
+        return extractAllClaims(token);
+    }
+
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        // Bad tokens fail on the raw bytes before any JSON is mapped
+        if (preValidator != null) {
+            preValidator.check(token, System.currentTimeMillis());
+        }
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     private Boolean isTokenExpired(String token) {
@@ -54,16 +91,20 @@ public class JwtUtil {
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        // Carry the authorities so authenticated requests need no user lookup
+        List<String> roles = userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+        claims.put(ROLES_CLAIM, roles);
         return createToken(claims, userDetails.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(key, SignatureAlgorithm.HS256)
+                .header().keyId(keyRing.activeKid()).and()
+                .claims(claims)
+                .subject(subject)
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + expirationMs))
+                .signWith(keyRing.signingKey(), keyRing.signatureAlgorithm())
                 .compact();
     }
 
@@ -0,0 +1,82 @@
+package com.driveMetaData.backend.security;
+
+import com.driveMetaData.backend.exception.LoginOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs logins, and with them the deliberately slow password hash, on a small fixed pool instead of on
+ * Tomcat request threads. When the queue is full a login fails at once with 503, so a login storm costs
+ * at most this pool's CPU and never starves the registration endpoints.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    // 0 uses one thread per available processor
+    @Value("${app.security.password.hashing-threads:0}")
+    private int hashingThreads;
+
+    // Longest a login may wait for a free thread, together with target-hash-ms this sizes the queue
+    @Value("${app.security.password.max-queue-wait-ms:1000}")
+    private long maxQueueWaitMs;
+
+    @Value("${app.security.password.target-hash-ms:250}")
+    private long targetHashMs;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        // Anything queued beyond what the pool clears within max-queue-wait-ms would only time out later
+        int queueCapacity = (int) Math.max(threads, threads * maxQueueWaitMs / Math.max(1, targetHashMs));
+
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "passwordHashing", Tags.empty()).bindTo(meterRegistry);
+        log.info("Password hashing pool: {} threads, queue capacity {}", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @throws LoginOverloadedException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Login rejected, password hashing queue is full ({} queued)", executor.getQueue().size());
+            throw new LoginOverloadedException();
+        }
+    }
+}
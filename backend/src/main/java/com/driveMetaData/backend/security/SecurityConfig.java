@@ -1,5 +1,7 @@
 package com.driveMetaData.backend.security;
 
+import com.driveMetaData.backend.observability.CorrelationId;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,9 +32,18 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches (streamed responses) were already authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/api/v1/authenticate").permitAll()
+                        // Public verification keys for tokens issued by this service
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         // Allow swagger and API docs endpoints
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        // Metrics scrape, only reachable on the internal management port. The registration pipeline
+                        // timers are tagged by tier and never by client
+                        .requestMatchers("/actuator/prometheus").permitAll()
+                        // Operational endpoints such as dead-letter replay
+                        .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
                         // Protect all other endpoints
                         .anyRequest().authenticated()
                 )
@@ -52,7 +63,8 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("http://localhost:3000", "http://localhost:5173"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Client_id"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Client_id", CorrelationId.HTTP_HEADER));
+        configuration.setExposedHeaders(List.of(CorrelationId.HTTP_HEADER));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,85 @@
+package com.driveMetaData.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Principals of already verified tokens, keyed by the SHA-256 of the token so raw tokens are not
+ * kept in memory. Each entry expires together with its token.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenPrincipalCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<String, CachedPrincipal> cache;
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, CachedPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedPrincipal value, long currentTime) {
+                        long remainingMs = value.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtPrincipal");
+    }
+
+    public UserDetails get(String tokenHash) {
+        CachedPrincipal cached = cache.getIfPresent(tokenHash);
+        // Caffeine evicts lazily, so double check the token's own expiry
+        if (cached == null || cached.expiresAtMillis() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return cached.userDetails();
+    }
+
+    public void put(String tokenHash, UserDetails userDetails, long expiresAtMillis) {
+        cache.put(tokenHash, new CachedPrincipal(userDetails, expiresAtMillis));
+    }
+
+    public static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedPrincipal(UserDetails userDetails, long expiresAtMillis) {
+    }
+}
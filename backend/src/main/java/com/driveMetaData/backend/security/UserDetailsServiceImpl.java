@@ -3,9 +3,11 @@ package com.driveMetaData.backend.security;
 import com.driveMetaData.backend.entity.AppUser;
 import com.driveMetaData.backend.repository.AppUserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -15,7 +17,8 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+@Slf4j
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final AppUserRepository appUserRepository;
 
@@ -34,4 +37,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 authorities
         );
     }
+
+    // Called after a successful login when the stored hash uses an old cost or algorithm
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        AppUser appUser = appUserRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + user.getUsername()));
+        appUser.setPassword(newPassword);
+        appUserRepository.save(appUser);
+        log.info("Upgraded password hash for user {}", user.getUsername());
+
+        return User.withUserDetails(user).password(newPassword).build();
+    }
 }
@@ -0,0 +1,43 @@
+package com.driveMetaData.backend.serialization;
+
+import com.driveMetaData.backend.dto.RegistrationRequest;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Consumer value deserializer that reads both formats, so producers can switch from JSON to
+ * {@link RegistrationWireFormat} one at a time. The first byte tells them apart.
+ */
+public class RegistrationDeserializer implements Deserializer<RegistrationRequest> {
+
+    private final JsonDeserializer<RegistrationRequest> json = new JsonDeserializer<>(RegistrationRequest.class, false);
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        // The target type is fixed, type headers and trusted packages do not apply
+    }
+
+    @Override
+    public RegistrationRequest deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return RegistrationWireFormat.isBinary(data) ? RegistrationWireFormat.decode(data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public RegistrationRequest deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return RegistrationWireFormat.isBinary(data) ? RegistrationWireFormat.decode(data) : json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,59 @@
+package com.driveMetaData.backend.serialization;
+
+import com.driveMetaData.backend.dto.RegistrationRequest;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Producer value serializer that writes {@link RegistrationRequest} as JSON or in {@link RegistrationWireFormat},
+ * selected by the {@link #FORMAT_CONFIG} producer property. Raw bytes, such as dead letters being published or
+ * replayed, pass through unchanged, and other values are written as JSON.
+ */
+public class RegistrationSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_CONFIG = "registration.value.format";
+
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+        Object format = configs.get(FORMAT_CONFIG);
+        if (format != null && !"json".equals(format) && !"binary".equals(format)) {
+            throw new IllegalArgumentException("Unknown " + FORMAT_CONFIG + " " + format + ", use json or binary");
+        }
+        binary = "binary".equals(format);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data instanceof byte[] raw) {
+            return raw;
+        }
+        if (binary && data instanceof RegistrationRequest request) {
+            return RegistrationWireFormat.encode(request);
+        }
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data instanceof byte[] raw) {
+            return raw;
+        }
+        if (binary && data instanceof RegistrationRequest request) {
+            return RegistrationWireFormat.encode(request);
+        }
+        return json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
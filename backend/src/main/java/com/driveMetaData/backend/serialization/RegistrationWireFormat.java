@@ -0,0 +1,134 @@
+package com.driveMetaData.backend.serialization;
+
+import com.driveMetaData.backend.dto.RegistrationRequest;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of {@link RegistrationRequest} for Kafka.
+ * <p>
+ * Layout: one version byte, then the fields in schema order (name, email, mobile, city), each as an
+ * unsigned varint of its UTF-8 length plus one (0 encodes null) followed by the bytes. A new version may only
+ * append fields, so a reader ignores trailing bytes it does not know. Version bytes stay below 0x09, which
+ * keeps binary records apart from JSON, whose first byte is whitespace or '{'.
+ */
+public final class RegistrationWireFormat {
+
+    public static final byte VERSION_1 = 1;
+
+    // Highest version byte that can ever be binary, 0x09 is the first JSON whitespace character
+    private static final byte MAX_VERSION = 0x08;
+
+    private RegistrationWireFormat() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] >= VERSION_1 && data[0] <= MAX_VERSION;
+    }
+
+    public static byte[] encode(RegistrationRequest request) {
+        byte[] name = utf8(request.getName());
+        byte[] email = utf8(request.getEmail());
+        byte[] mobile = utf8(request.getMobile());
+        byte[] city = utf8(request.getCity());
+
+        byte[] out = new byte[1 + fieldSize(name) + fieldSize(email) + fieldSize(mobile) + fieldSize(city)];
+        out[0] = VERSION_1;
+        int position = 1;
+        position = writeField(out, position, name);
+        position = writeField(out, position, email);
+        position = writeField(out, position, mobile);
+        writeField(out, position, city);
+        return out;
+    }
+
+    // Any version starts with the version 1 fields, whatever a later version appended is skipped
+    public static RegistrationRequest decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new SerializationException("Unsupported registration wire format version "
+                    + (data.length == 0 ? "(empty)" : data[0]));
+        }
+        Reader reader = new Reader(data);
+        RegistrationRequest request = new RegistrationRequest();
+        request.setName(reader.readString());
+        request.setEmail(reader.readString());
+        request.setMobile(reader.readString());
+        request.setCity(reader.readString());
+        return request;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int fieldSize(byte[] value) {
+        int length = value == null ? 0 : value.length;
+        return varintSize(length + 1) + length;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeField(byte[] out, int position, byte[] value) {
+        int prefix = value == null ? 0 : value.length + 1;
+        while ((prefix & ~0x7F) != 0) {
+            out[position++] = (byte) ((prefix & 0x7F) | 0x80);
+            prefix >>>= 7;
+        }
+        out[position++] = (byte) prefix;
+        if (value != null) {
+            System.arraycopy(value, 0, out, position, value.length);
+            position += value.length;
+        }
+        return position;
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position = 1;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private String readString() {
+            int prefix = readVarint();
+            if (prefix == 0) {
+                return null;
+            }
+            int length = prefix - 1;
+            if (length > data.length - position) {
+                throw new SerializationException("Truncated registration record");
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        // At most five bytes, the fifth may only carry the three bits that keep the int non-negative
+        private int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                if (position >= data.length) {
+                    throw new SerializationException("Truncated registration record");
+                }
+                byte b = data[position++];
+                if (shift == 28 && (b & 0xF8) != 0) {
+                    break;
+                }
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed length in registration record");
+        }
+    }
+}
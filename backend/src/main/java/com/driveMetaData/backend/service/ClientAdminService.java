@@ -0,0 +1,72 @@
+package com.driveMetaData.backend.service;
+
+import com.driveMetaData.backend.dto.ClientDetails;
+import com.driveMetaData.backend.dto.ClientRequest;
+import com.driveMetaData.backend.entity.Client;
+import com.driveMetaData.backend.ratelimit.RateLimitPolicyResolver;
+import com.driveMetaData.backend.repository.ClientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Changes to the clients table. Each write is committed before the registry is told, so every node
+ * reloads the committed row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientAdminService {
+
+    private static final int MAX_CLIENT_ID_LENGTH = 64;
+
+    private final ClientRepository clientRepository;
+    private final ClientRegistry clientRegistry;
+    private final RateLimitPolicyResolver policyResolver;
+
+    public List<ClientDetails> list() {
+        return clientRepository.findAll(Sort.by("clientId")).stream().map(ClientDetails::from).toList();
+    }
+
+    public ClientDetails get(String clientId) {
+        return clientRepository.findById(clientId)
+                .map(ClientDetails::from)
+                .orElseThrow(() -> notFound(clientId));
+    }
+
+    // Creates the client or replaces all of its settings
+    public ClientDetails save(String clientId, ClientRequest request) {
+        if (clientId.isBlank() || clientId.length() > MAX_CLIENT_ID_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Client ID must be 1 to " + MAX_CLIENT_ID_LENGTH + " characters.");
+        }
+        if (request.getTier() != null && !policyResolver.hasTier(request.getTier())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown rate limit tier '" + request.getTier() + "'.");
+        }
+        Client saved = clientRepository.save(new Client(clientId, request.getStatus(), request.getTier(),
+                request.getMaxBatchItems(), Instant.now()));
+        clientRegistry.changed(clientId);
+        log.info("Client {} saved with status {} and tier {}", clientId, saved.getStatus(),
+                saved.getTier() != null ? saved.getTier() : "default");
+        return ClientDetails.from(saved);
+    }
+
+    public void delete(String clientId) {
+        if (!clientRepository.existsById(clientId)) {
+            throw notFound(clientId);
+        }
+        clientRepository.deleteById(clientId);
+        clientRegistry.changed(clientId);
+        log.info("Client {} deleted", clientId);
+    }
+
+    private static ResponseStatusException notFound(String clientId) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Client " + clientId + " not found.");
+    }
+}
@@ -0,0 +1,153 @@
+package com.driveMetaData.backend.service;
+
+import com.driveMetaData.backend.entity.Client;
+import com.driveMetaData.backend.ratelimit.ClientTierLookup;
+import com.driveMetaData.backend.repository.ClientRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The clients table held in memory as one immutable map, so the registration path resolves a client's status,
+ * tier and quotas with a single map read. A change replaces the map as a whole. Nodes hear about changes made
+ * elsewhere on the change channel, and a periodic full reload picks up any message a node missed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientRegistry implements ClientTierLookup {
+
+    // Published instead of a client ID to make every node reload the whole table
+    public static final String ALL_CLIENTS = "*";
+
+    private final ClientRepository clientRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.clients.change-channel:clients:changed}")
+    private String changeChannel;
+
+    @Value("${app.clients.reload-interval-ms:60000}")
+    private long reloadIntervalMs;
+
+    private volatile Map<String, ClientProfile> snapshot = Map.of();
+
+    // Orders reloads and refreshes so a slower one never overwrites a newer snapshot. A lock rather than
+    // synchronized, as both hold it across a database round trip and run on virtual request threads.
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private ScheduledExecutorService reloader;
+
+    // What the registration path needs to know about a client
+    public record ClientProfile(String clientId, String status, String tier, Integer maxBatchItems) {
+
+        public boolean isActive() {
+            return Client.ACTIVE.equals(status);
+        }
+
+        static ClientProfile of(Client client) {
+            return new ClientProfile(client.getClientId(), client.getStatus(), client.getTier(), client.getMaxBatchItems());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onChange(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(changeChannel));
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "client-registry-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(() -> onChange(ALL_CLIENTS), reloadIntervalMs, reloadIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Client registry loaded with {} clients", snapshot.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    public ClientProfile lookup(String clientId) {
+        return clientId == null ? null : snapshot.get(clientId);
+    }
+
+    @Override
+    public String tierOf(String clientId) {
+        ClientProfile client = lookup(clientId);
+        return client == null ? null : client.tier();
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Applies a committed change to this node's snapshot and tells the other nodes about it.
+     */
+    public void changed(String clientId) {
+        refresh(clientId);
+        try {
+            redisTemplate.convertAndSend(changeChannel, clientId);
+        } catch (Exception e) {
+            log.warn("Could not publish change of client {}, other nodes pick it up on their next reload: {}",
+                    clientId, e.getMessage());
+        }
+    }
+
+    public void reload() {
+        updateLock.lock();
+        try {
+            Map<String, ClientProfile> loaded = new HashMap<>();
+            clientRepository.findAll().forEach(client -> loaded.put(client.getClientId(), ClientProfile.of(client)));
+            snapshot = Map.copyOf(loaded);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    // Copy on write, readers keep the map they already hold
+    public void refresh(String clientId) {
+        if (ALL_CLIENTS.equals(clientId)) {
+            reload();
+            return;
+        }
+        updateLock.lock();
+        try {
+            Map<String, ClientProfile> next = new HashMap<>(snapshot);
+            clientRepository.findById(clientId).ifPresentOrElse(
+                    client -> next.put(clientId, ClientProfile.of(client)),
+                    () -> next.remove(clientId));
+            snapshot = Map.copyOf(next);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    // A failed reload keeps the current snapshot, and must not end the schedule or the listener
+    private void onChange(String clientId) {
+        try {
+            refresh(clientId);
+        } catch (Exception e) {
+            log.error("Could not refresh client registry for {}: {}", clientId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.driveMetaData.backend.service;
+
+import com.driveMetaData.backend.config.KafkaConsumerConfig;
+import com.driveMetaData.backend.dto.DeadLetterReplayStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Copies records from the dead-letter topic back onto the registration topic, unchanged and at a fixed rate,
+ * one replay at a time. Progress is committed under its own consumer group after every acknowledged chunk,
+ * so a later replay continues where the previous one stopped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterReplayService {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${app.kafka.topic.registration}")
+    private String registrationTopic;
+
+    @Value("${app.kafka.dlt.replay.group-id:registration-dlt-replay}")
+    private String replayGroupId;
+
+    @Value("${app.kafka.dlt.replay.max-records:10000}")
+    private int maxRecordsLimit;
+
+    @Value("${app.kafka.dlt.replay.max-rate-per-second:500}")
+    private double maxRateLimit;
+
+    private final ExecutorService replayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dlt-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private DeadLetterReplayStatus status = new DeadLetterReplayStatus();
+
+    @PreDestroy
+    public void shutdown() {
+        replayExecutor.shutdownNow();
+    }
+
+    public synchronized DeadLetterReplayStatus status() {
+        DeadLetterReplayStatus current = status;
+        return new DeadLetterReplayStatus(current.isRunning(), current.getRequested(), current.getRatePerSecond(),
+                current.getReplayed(), current.getStartedAt(), current.getFinishedAt(), current.getError());
+    }
+
+    public synchronized DeadLetterReplayStatus start(int maxRecords, double ratePerSecond) {
+        if (maxRecords < 1 || maxRecords > maxRecordsLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxRecords must be between 1 and " + maxRecordsLimit);
+        }
+        if (ratePerSecond <= 0 || ratePerSecond > maxRateLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ratePerSecond must be above 0 and at most " + maxRateLimit);
+        }
+        if (status.isRunning()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A dead-letter replay is already running");
+        }
+        status = new DeadLetterReplayStatus(true, maxRecords, ratePerSecond, 0, Instant.now(), null, null);
+        replayExecutor.execute(() -> replay(maxRecords, ratePerSecond));
+        log.info("Started replay of up to {} dead letters at {}/s", maxRecords, ratePerSecond);
+        return status();
+    }
+
+    private void replay(int maxRecords, double ratePerSecond) {
+        String deadLetterTopic = registrationTopic + KafkaConsumerConfig.DEAD_LETTER_SUFFIX;
+        long intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        String error = null;
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(consumerProps(maxRecords),
+                new StringDeserializer(), new ByteArrayDeserializer())) {
+            List<TopicPartition> partitions = consumer.partitionsFor(deadLetterTopic).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            // Only what is in the topic now, dead letters arriving meanwhile wait for the next replay
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            long replayed = 0;
+            long nextSend = System.nanoTime();
+            while (replayed < maxRecords && !caughtUp(consumer, endOffsets)) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofSeconds(1));
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> processed = new HashMap<>();
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    if (replayed + sends.size() == maxRecords) {
+                        break;
+                    }
+                    long wait = nextSend - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    nextSend = Math.max(nextSend, System.nanoTime()) + intervalNanos;
+                    sends.add(kafkaTemplate.send(registrationTopic, record.key(), record.value()));
+                    processed.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+                }
+                // Commit only what Kafka acknowledged, a failed chunk is replayed again next time
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+                consumer.commitSync(processed);
+                replayed += sends.size();
+                updateReplayed(replayed);
+            }
+            log.info("Replayed {} dead letters from {}", replayed, deadLetterTopic);
+        } catch (Exception e) {
+            error = e.getMessage();
+            log.error("Dead-letter replay stopped: {}", e.getMessage(), e);
+        }
+        finish(error);
+    }
+
+    private boolean caughtUp(KafkaConsumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream().allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+    }
+
+    private synchronized void updateReplayed(long replayed) {
+        status.setReplayed(replayed);
+    }
+
+    private synchronized void finish(String error) {
+        status.setRunning(false);
+        status.setFinishedAt(Instant.now());
+        status.setError(error);
+    }
+
+    private Map<String, Object> consumerProps(int maxRecords) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, replayGroupId);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(500, maxRecords));
+        return props;
+    }
+}
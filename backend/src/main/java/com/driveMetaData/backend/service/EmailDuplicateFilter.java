@@ -0,0 +1,150 @@
+package com.driveMetaData.backend.service;
+
+import com.driveMetaData.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over registered emails, used to reject obvious duplicates before they are queued.
+ * A negative answer is exact, so new emails never touch the database here. A positive answer is
+ * confirmed with an indexed lookup because the filter has false positives.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailDuplicateFilter {
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.registration.duplicate-check.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.registration.duplicate-check.expected-emails:1000000}")
+    private long expectedEmails;
+
+    @Value("${app.registration.duplicate-check.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Consumer threads may already call add() while it is sized, so the array and its size are published together
+    private volatile Bloom bloom;
+
+    // Until the filter has seen every stored email a miss proves nothing
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long bitCount = Math.max(64, (long) Math.ceil(-expectedEmails * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEmails * Math.log(2)));
+        bloom = new Bloom(new AtomicLongArray((int) ((bitCount + 63) / 64)), bitCount, hashCount);
+
+        Thread loader = new Thread(this::loadExistingEmails, "email-filter-warmup");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void loadExistingEmails() {
+        try {
+            long started = System.currentTimeMillis();
+            // PostgreSQL only streams with a cursor inside a transaction
+            Long loaded = transactionTemplate.execute(status -> {
+                long[] count = {0};
+                JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+                streaming.setFetchSize(10_000);
+                streaming.query("SELECT email FROM registrations", rs -> {
+                    add(rs.getString(1));
+                    count[0]++;
+                });
+                return count[0];
+            });
+            ready = true;
+            log.info("Email duplicate filter loaded {} emails ({} bits, {} hashes) in {} ms",
+                    loaded, bloom.bitCount(), bloom.hashCount(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Could not load email duplicate filter, duplicate pre-check stays disabled: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return true only when the email is confirmed to be registered already
+     */
+    public boolean isRegistered(String email) {
+        return mightBeRegistered(email) && userRepository.existsByEmail(email);
+    }
+
+    /**
+     * In-memory half of {@link #isRegistered}, false means the email is certainly new
+     */
+    public boolean mightBeRegistered(String email) {
+        return ready && bloom.mightContain(email);
+    }
+
+    public void add(String email) {
+        Bloom current = bloom;
+        if (current == null || email == null) {
+            return;
+        }
+        current.add(email);
+    }
+
+    private record Bloom(AtomicLongArray bits, long bitCount, int hashCount) {
+
+        void add(String email) {
+            long[] hashes = hash(email);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = index(hashes, i);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    // retry until the bit is set by us or by a concurrent add
+                }
+            }
+        }
+
+        boolean mightContain(String email) {
+            long[] hashes = hash(email);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = index(hashes, i);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Double hashing, the i-th probe is h1 + i * h2
+        private long index(long[] hashes, int i) {
+            return Math.floorMod(hashes[0] + i * hashes[1], bitCount);
+        }
+    }
+
+    private static long[] hash(String email) {
+        // FNV-1a over the UTF-8 bytes, then a murmur3 finalizer for the second hash
+        long h1 = 0xcbf29ce484222325L;
+        for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+            h1 ^= b;
+            h1 *= 0x100000001b3L;
+        }
+        long h2 = h1;
+        h2 ^= h2 >>> 33;
+        h2 *= 0xff51afd7ed558ccdL;
+        h2 ^= h2 >>> 33;
+        h2 *= 0xc4ceb9fe1a85ec53L;
+        h2 ^= h2 >>> 33;
+        return new long[]{h1, h2 | 1};
+    }
+}
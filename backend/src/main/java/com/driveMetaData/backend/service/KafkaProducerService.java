@@ -1,13 +1,24 @@
 package com.driveMetaData.backend.service;
 
+import com.driveMetaData.backend.observability.CorrelationId;
+import com.driveMetaData.backend.observability.HotPathSamplingFilter;
+import com.driveMetaData.backend.observability.PipelineMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -16,25 +27,86 @@ public class KafkaProducerService {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
+    private final MeterRegistry meterRegistry;
+
+    private final PipelineMetrics pipelineMetrics;
+
     @Value("${app.kafka.topic.registration}")
     private String registrationTopic;
 
-    public <T> CompletableFuture<SendResult<String, Object>> sendMessage(T message) {
-        log.info("Sending message to topic {}: {}", registrationTopic, message);
+    private DistributionSummary sendBatchSize;
+
+    @PostConstruct
+    public void init() {
+        sendBatchSize = DistributionSummary.builder("registration.kafka.send.batch.size")
+                .description("Records handed to the producer together by one sendMessages call")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(registrationTopic, message);
+    // Records with the same key land on the same partition and stay in order
+    public <T> CompletableFuture<SendResult<String, Object>> sendMessage(String key, T message) {
+        CompletableFuture<SendResult<String, Object>> future = send(key, message, CorrelationId.current(), CorrelationId.currentTier());
 
+        // Acks are counted by registration.kafka.send.ack, only failures are worth a line
         future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                log.info("Message sent successfully to topic {} partition {} @ offset {}",
-                        registrationTopic,
-                        result.getRecordMetadata().partition(),
-                        result.getRecordMetadata().offset());
+            if (ex != null) {
+                log.error(HotPathSamplingFilter.HOT_PATH, "Unable to send message to topic {}: {}", registrationTopic, ex.getMessage());
+            }
+        });
+
+        return future;
+    }
+
+    // Hands every message to the producer before any ack is awaited, so they travel in shared produce requests
+    public <T> List<CompletableFuture<SendResult<String, Object>>> sendMessages(List<T> messages, Function<T, String> keyOf) {
+        log.debug("Sending {} messages to topic {}", messages.size(), registrationTopic);
+        sendBatchSize.record(messages.size());
+
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(messages.size());
+        KafkaException unavailable = null;
+        String correlationId = CorrelationId.current();
+        String tier = CorrelationId.currentTier();
+        for (T message : messages) {
+            if (unavailable != null) {
+                // send() already blocked for max.block.ms once, fail the rest instead of waiting again per message
+                futures.add(CompletableFuture.failedFuture(unavailable));
+                continue;
+            }
+            try {
+                futures.add(send(keyOf.apply(message), message, correlationId, tier));
+            } catch (KafkaException e) {
+                unavailable = e;
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).whenComplete((result, ex) -> {
+            long failed = futures.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+            if (failed == 0) {
+                log.debug("{} messages sent successfully to topic {}", futures.size(), registrationTopic);
             } else {
-                log.error("Unable to send message to topic {}: {}", registrationTopic, ex.getMessage());
+                log.error(HotPathSamplingFilter.HOT_PATH, "{} of {} messages could not be sent to topic {}",
+                        failed, futures.size(), registrationTopic);
             }
         });
 
+        return futures;
+    }
+
+    // The request's correlation ID and client tier travel as headers, the ack latency is timed per record
+    private <T> CompletableFuture<SendResult<String, Object>> send(String key, T message, String correlationId, String tier) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(registrationTopic, key, message);
+        CorrelationId.addTo(record.headers(), correlationId, tier);
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, Object>> future;
+        try {
+            future = kafkaTemplate.send(record);
+        } catch (KafkaException e) {
+            pipelineMetrics.kafkaSendAck("failure", tier, start);
+            throw e;
+        }
+        future.whenComplete((result, ex) -> pipelineMetrics.kafkaSendAck(ex == null ? "success" : "failure", tier, start));
         return future;
     }
-}
\ No newline at end of file
+}
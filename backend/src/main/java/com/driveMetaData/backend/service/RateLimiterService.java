@@ -1,13 +1,28 @@
 package com.driveMetaData.backend.service;
 
+import com.driveMetaData.backend.dto.RateLimitDecision;
+import com.driveMetaData.backend.observability.HotPathSamplingFilter;
+import com.driveMetaData.backend.observability.PipelineMetrics;
+import com.driveMetaData.backend.ratelimit.RateLimitAlgorithm;
+import com.driveMetaData.backend.ratelimit.RateLimitPolicy;
+import com.driveMetaData.backend.ratelimit.RateLimitPolicyResolver;
+import com.driveMetaData.backend.ratelimit.RateLimitProperties;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
@@ -15,19 +30,33 @@ import java.time.Instant;
 public class RateLimiterService {
 
     private final StringRedisTemplate redisTemplate;
+    private final ReactiveStringRedisTemplate reactiveRedisTemplate;
+    private final RateLimitProperties properties;
+    private final RateLimitPolicyResolver policyResolver;
+    private final PipelineMetrics pipelineMetrics;
 
-    @Value("${app.ratelimit.capacity}")
-    private int capacity;
+    // Tokens this node has taken from the Redis bucket and may spend without another round trip
+    private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<>();
 
-    @Value("${app.ratelimit.refill-rate}")
-    private int refillRate;
+    private int leaseSize;
 
-    @Value("${app.ratelimit.refill-period-seconds}")
-    private int refillPeriodSeconds;
+    @PostConstruct
+    public void init() {
+        RateLimitProperties.Lease lease = properties.getLease();
+        int size = Math.max(1, lease.getSize());
+        if (lease.getMaxOvershoot() > 0) {
+            size = Math.max(1, Math.min(size, lease.getMaxOvershoot() / Math.max(1, lease.getExpectedNodes())));
+        }
+        this.leaseSize = size;
 
-    private static final String RATE_LIMIT_KEY_PREFIX = "rate_limit:";
-    private static final String LAST_REFILL_TIME_SUFFIX = ":last_refill";
-    private static final String TOKENS_SUFFIX = ":tokens";
+        if (leaseSize > 1) {
+            // Leased tokens are already debited in Redis, so the total never exceeds what Redis granted.
+            // They may however be spent up to lease.ttl-ms after the window they were granted in.
+            log.info("Local rate limit leases enabled: {} tokens per lease, {} ms lifetime, "
+                            + "worst-case overshoot per refill period {} tokens across {} nodes",
+                    leaseSize, lease.getTtlMs(), (long) leaseSize * lease.getExpectedNodes(), lease.getExpectedNodes());
+        }
+    }
 
     /**
      * Checks if a request from a client should be allowed based on rate limiting rules
@@ -36,85 +65,138 @@ public class RateLimiterService {
      * @return true if the request is allowed, false otherwise
      */
     public boolean allowRequest(String clientId) {
-        String tokenKey = RATE_LIMIT_KEY_PREFIX + clientId + TOKENS_SUFFIX;
-        String lastRefillKey = RATE_LIMIT_KEY_PREFIX + clientId + LAST_REFILL_TIME_SUFFIX;
-
-        Integer currentTokens = getCurrentTokenCount(tokenKey);
-        
-        // Get last refill time or initialize if not exists
-        Long lastRefillTime = getLastRefillTime(lastRefillKey);
-        
-        // Calculate time since last refill
-        long currentTimeMillis = Instant.now().toEpochMilli();
-        long elapsedTime = currentTimeMillis - lastRefillTime;
-        
-        // Refill tokens based on elapsed time
-        int tokensToAdd = calculateTokensToAdd(elapsedTime);
-        currentTokens = Math.min(capacity, currentTokens + tokensToAdd);
-        
-        // If tokens were added, update last refill time
-        if (tokensToAdd > 0) {
-            redisTemplate.opsForValue().set(lastRefillKey, String.valueOf(currentTimeMillis));
+        return tryAcquire(clientId, 1).isAllowed();
+    }
+
+    /**
+     * Consumes tokens from the local lease for the client if one is live, otherwise
+     * evaluates the client's tier algorithm atomically in Redis with a single script call.
+     * When leasing is enabled the Redis call takes a whole block of tokens for later requests.
+     *
+     * @param clientId The client identifier
+     * @param permits  Number of tokens to consume
+     * @return the decision together with the remaining tokens and retry-after time
+     */
+    public RateLimitDecision tryAcquire(String clientId, int permits) {
+        long start = System.nanoTime();
+        RateLimitPolicy policy = policyResolver.policyFor(clientId);
+        try {
+            RateLimitDecision decision = acquire(clientId, permits, policy);
+            pipelineMetrics.rateLimitDecision(outcome(decision), policy.getTier(), start);
+            return decision;
+        } catch (RuntimeException e) {
+            pipelineMetrics.rateLimitDecision("error", policy.getTier(), start);
+            throw e;
         }
-        
-        // Check if request can be allowed
-        if (currentTokens > 0) {
-            // Consume a token
-            redisTemplate.opsForValue().set(tokenKey, String.valueOf(currentTokens - 1));
-            return true;
-        } else {
-            log.warn("Rate limit exceeded for client: {}", clientId);
-            return false;
+    }
+
+    private RateLimitDecision acquire(String clientId, int permits, RateLimitPolicy policy) {
+        if (leaseSize > 1) {
+            Lease lease = leases.get(clientId);
+            if (lease != null && lease.tryTake(permits)) {
+                return new RateLimitDecision(true, lease.limit, lease.remaining(), 0);
+            }
         }
+        return acquireFromRedis(clientId, permits, policy);
+    }
+
+    private static String outcome(RateLimitDecision decision) {
+        return decision.isAllowed() ? "allowed" : "rejected";
     }
 
-    private Integer getCurrentTokenCount(String tokenKey) {
-        String tokenStr = redisTemplate.opsForValue().get(tokenKey);
-        if (tokenStr == null) {
-            // Initialize with full capacity if not exists
-            redisTemplate.opsForValue().set(tokenKey, String.valueOf(capacity));
-            return capacity;
+    /**
+     * Same decision as {@link #tryAcquire}, the Redis round trip does not hold the calling thread.
+     */
+    @SuppressWarnings("unchecked")
+    public Mono<RateLimitDecision> tryAcquireReactive(String clientId, int permits) {
+        long start = System.nanoTime();
+        RateLimitPolicy policy = policyResolver.policyFor(clientId);
+        if (leaseSize > 1) {
+            Lease lease = leases.get(clientId);
+            if (lease != null && lease.tryTake(permits)) {
+                pipelineMetrics.rateLimitDecision("allowed", policy.getTier(), start);
+                return Mono.just(new RateLimitDecision(true, lease.limit, lease.remaining(), 0));
+            }
         }
-        return Integer.parseInt(tokenStr);
+        RateLimitAlgorithm algorithm = policy.getAlgorithm();
+        return reactiveRedisTemplate.execute(
+                        algorithm.script(),
+                        Collections.singletonList(algorithm.key(clientId)),
+                        algorithm.arguments(policy, permits, maxGrant(policy, permits)))
+                .next()
+                .map(result -> decide(clientId, permits, policy, (List<Long>) result))
+                .doOnNext(decision -> pipelineMetrics.rateLimitDecision(outcome(decision), policy.getTier(), start))
+                .doOnError(e -> pipelineMetrics.rateLimitDecision("error", policy.getTier(), start));
     }
 
-    private Long getLastRefillTime(String lastRefillKey) {
-        String lastRefillTimeStr = redisTemplate.opsForValue().get(lastRefillKey);
-        if (lastRefillTimeStr == null) {
-            // Initialize with current time if not exists
-            long currentTimeMillis = Instant.now().toEpochMilli();
-            redisTemplate.opsForValue().set(lastRefillKey, String.valueOf(currentTimeMillis));
-            return currentTimeMillis;
+    @SuppressWarnings("unchecked")
+    private RateLimitDecision acquireFromRedis(String clientId, int permits, RateLimitPolicy policy) {
+        RateLimitAlgorithm algorithm = policy.getAlgorithm();
+        List<Long> result = redisTemplate.execute(
+                algorithm.script(),
+                Collections.singletonList(algorithm.key(clientId)),
+                algorithm.arguments(policy, permits, maxGrant(policy, permits)).toArray());
+        return decide(clientId, permits, policy, result);
+    }
+
+    private long maxGrant(RateLimitPolicy policy, int permits) {
+        return Math.max(permits, Math.min(leaseSize, policy.getCapacity()));
+    }
+
+    // Turns the script's {granted, remaining, retryAfterMillis} into a decision and keeps any surplus as a lease
+    private RateLimitDecision decide(String clientId, int permits, RateLimitPolicy policy, List<Long> result) {
+        long granted = result.get(0);
+        long remaining = result.get(1);
+        if (granted < permits) {
+            leases.remove(clientId);
+            log.warn(HotPathSamplingFilter.HOT_PATH, "Rate limit exceeded for client: {}", clientId);
+            return new RateLimitDecision(false, policy.getCapacity(), remaining, result.get(2));
         }
-        return Long.parseLong(lastRefillTimeStr);
+
+        if (granted > permits) {
+            long surplus = granted - permits;
+            if (leases.size() >= properties.getLease().getMaxEntries()) {
+                evictLeases();
+            }
+            // Requests that missed the lease concurrently each refill it, a live lease keeps its tokens and
+            // takes the new ones with its own expiry, so no leased token outlives lease.ttl-ms
+            Lease lease = leases.compute(clientId, (id, existing) -> {
+                if (existing != null && !existing.isExpired()) {
+                    existing.add(surplus, remaining);
+                    return existing;
+                }
+                return new Lease(surplus, remaining, policy.getCapacity(),
+                        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getLease().getTtlMs()));
+            });
+            return new RateLimitDecision(true, policy.getCapacity(), lease.remaining(), 0);
+        }
+        return new RateLimitDecision(true, policy.getCapacity(), remaining, 0);
     }
 
-    private int calculateTokensToAdd(long elapsedTimeMillis) {
-        // Convert elapsed time to seconds
-        long elapsedTimeSeconds = elapsedTimeMillis / 1000;
-        
-        // Calculate number of periods elapsed
-        long periodsElapsed = elapsedTimeSeconds / refillPeriodSeconds;
-        
-        // Calculate tokens to add based on refill rate and periods elapsed
-        return (int) (periodsElapsed * refillRate);
+    // Expired leases go first. If live ones alone still fill the map, arbitrary ones are dropped, their unspent
+    // tokens are forfeited, which only makes those clients' limits stricter
+    private void evictLeases() {
+        leases.values().removeIf(Lease::isExpired);
+        Iterator<Lease> live = leases.values().iterator();
+        while (leases.size() >= properties.getLease().getMaxEntries() && live.hasNext()) {
+            live.next();
+            live.remove();
+        }
     }
-    
+
     /**
      * Reset the rate limit for a client (for testing or admin purposes)
      *
      * @param clientId The client identifier
      */
     public void resetRateLimit(String clientId) {
-        String tokenKey = RATE_LIMIT_KEY_PREFIX + clientId + TOKENS_SUFFIX;
-        String lastRefillKey = RATE_LIMIT_KEY_PREFIX + clientId + LAST_REFILL_TIME_SUFFIX;
-        
-        redisTemplate.opsForValue().set(tokenKey, String.valueOf(capacity));
-        redisTemplate.opsForValue().set(lastRefillKey, String.valueOf(Instant.now().toEpochMilli()));
-        
+        // A missing key is recreated with the full limit on the next request
+        redisTemplate.delete(policyResolver.policyFor(clientId).getAlgorithm().key(clientId));
+        leases.remove(clientId);
+
         log.info("Reset rate limit for client: {}", clientId);
     }
-    
+
     /**
      * Set the time-to-live (TTL) for rate limit keys to ensure cleanup
      *
@@ -122,10 +204,53 @@ public class RateLimiterService {
      * @param ttlSeconds Time-to-live in seconds
      */
     public void setRateLimitTTL(String clientId, long ttlSeconds) {
-        String tokenKey = RATE_LIMIT_KEY_PREFIX + clientId + TOKENS_SUFFIX;
-        String lastRefillKey = RATE_LIMIT_KEY_PREFIX + clientId + LAST_REFILL_TIME_SUFFIX;
-        
-        redisTemplate.expire(tokenKey, Duration.ofSeconds(ttlSeconds));
-        redisTemplate.expire(lastRefillKey, Duration.ofSeconds(ttlSeconds));
+        redisTemplate.expire(policyResolver.policyFor(clientId).getAlgorithm().key(clientId),
+                Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * A block of tokens leased from the Redis bucket. Spending is a CAS on a single counter,
+     * an exhausted or expired lease falls back to Redis for a fresh block.
+     */
+    private static final class Lease {
+        private final AtomicLong tokens;
+        private volatile long bucketRemaining;
+        private final long limit;
+        private final long expiresAtNanos;
+
+        private Lease(long tokens, long bucketRemaining, long limit, long expiresAtNanos) {
+            this.tokens = new AtomicLong(tokens);
+            this.bucketRemaining = bucketRemaining;
+            this.limit = limit;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean tryTake(int permits) {
+            if (isExpired()) {
+                return false;
+            }
+            long current;
+            do {
+                current = tokens.get();
+                if (current < permits) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(current, current - permits));
+            return true;
+        }
+
+        private void add(long surplus, long latestBucketRemaining) {
+            tokens.addAndGet(surplus);
+            bucketRemaining = latestBucketRemaining;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+
+        // Approximate: the shared bucket may have been drained by other nodes since the lease was taken
+        private long remaining() {
+            return tokens.get() + bucketRemaining;
+        }
     }
 }
@@ -0,0 +1,159 @@
+package com.driveMetaData.backend.service;
+
+import com.driveMetaData.backend.dto.RegistrationRequest;
+import com.driveMetaData.backend.observability.CorrelationId;
+import com.driveMetaData.backend.repository.RegistrationOutboxRepository;
+import com.driveMetaData.backend.repository.RegistrationOutboxRepository.OutboxRecord;
+import com.driveMetaData.backend.serialization.RegistrationSerializer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbox mode for the registration path: requests are committed to the {@code registration_outbox} table,
+ * which needs only PostgreSQL, and a background relay publishes them to Kafka in large batches. A claimed
+ * batch is deleted only once Kafka has acknowledged every record of it, so delivery is at least once and
+ * registrations keep being accepted while the broker is down.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RegistrationOutboxService {
+
+    private final RegistrationOutboxRepository outboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.registration.outbox.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.registration.outbox.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.registration.outbox.poll-interval-ms:200}")
+    private long pollIntervalMs;
+
+    @Value("${app.registration.outbox.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.kafka.topic.registration}")
+    private String registrationTopic;
+
+    // Payloads are stored already serialized, in the format the producer would have written
+    @Value("${app.kafka.producer.value-format:json}")
+    private String valueFormat;
+
+    private final RegistrationSerializer serializer = new RegistrationSerializer();
+
+    private final ScheduledExecutorService relayExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Counter relayed;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        serializer.configure(Map.of(RegistrationSerializer.FORMAT_CONFIG, valueFormat,
+                JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        outboxRepository.createTableIfMissing();
+        relayed = Counter.builder("registration.outbox.relayed")
+                .description("Registrations published to Kafka from the outbox")
+                .register(meterRegistry);
+        Gauge.builder("registration.outbox.pending", outboxRepository, RegistrationOutboxRepository::pending)
+                .description("Registrations in the outbox not yet published to Kafka")
+                .register(meterRegistry);
+        relayExecutor.scheduleWithFixedDelay(this::relay, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Registration outbox enabled, relaying up to {} records per batch", batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relayExecutor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void append(RegistrationRequest request) {
+        outboxRepository.append(request.getEmail(), serializer.serialize(registrationTopic, request),
+                CorrelationId.current(), CorrelationId.currentTier());
+    }
+
+    public void appendAll(List<RegistrationRequest> requests) {
+        outboxRepository.appendAll(requests.stream().map(RegistrationRequest::getEmail).toList(),
+                requests.stream().map(request -> serializer.serialize(registrationTopic, request)).toList(),
+                CorrelationId.current(), CorrelationId.currentTier());
+    }
+
+    // Drains the outbox batch by batch, a failed batch is retried from the table on the next run
+    private void relay() {
+        try {
+            int sent;
+            do {
+                sent = relayBatch();
+            } while (sent == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            log.warn("Outbox relay failed, retrying in {} ms - {}", pollIntervalMs,
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        Integer sent = transactionTemplate.execute(status -> {
+            List<OutboxRecord> claimed = outboxRepository.claim(batchSize);
+            if (claimed.isEmpty()) {
+                return 0;
+            }
+            List<CompletableFuture<?>> sends = claimed.stream()
+                    .<CompletableFuture<?>>map(record -> kafkaTemplate.send(toProducerRecord(record)))
+                    .toList();
+            try {
+                // Throwing rolls the delete back, records Kafka did accept are sent again later
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while relaying the outbox", e);
+            } catch (Exception e) {
+                throw new IllegalStateException("Kafka did not acknowledge the outbox batch", e);
+            }
+            return claimed.size();
+        });
+        if (sent != null && sent > 0) {
+            relayed.increment(sent);
+            log.info("Relayed {} registrations from the outbox", sent);
+        }
+        return sent == null ? 0 : sent;
+    }
+
+    // The correlation ID of the original request reaches the consumer as if the record had been sent directly
+    private ProducerRecord<String, Object> toProducerRecord(OutboxRecord record) {
+        ProducerRecord<String, Object> producerRecord = new ProducerRecord<>(registrationTopic, record.key(), record.payload());
+        CorrelationId.addTo(producerRecord.headers(), record.correlationId(), record.clientTier());
+        return producerRecord;
+    }
+}
@@ -1,58 +1,424 @@
 package com.driveMetaData.backend.service;
 
+import com.driveMetaData.backend.dto.BatchItemResult;
+import com.driveMetaData.backend.dto.BatchRegistrationResponse;
+import com.driveMetaData.backend.dto.RegistrationBatchResult;
 import com.driveMetaData.backend.dto.RegistrationRequest;
+import com.driveMetaData.backend.dto.UserPage;
+import com.driveMetaData.backend.dto.UserSummary;
 import com.driveMetaData.backend.entity.User;
-import com.driveMetaData.backend.repository.UserRepository;
+import com.driveMetaData.backend.exception.DuplicateRegistrationException;
+import com.driveMetaData.backend.exception.RegistrationOverloadedException;
+import com.driveMetaData.backend.observability.CorrelationId;
+import com.driveMetaData.backend.observability.HotPathSamplingFilter;
+import com.driveMetaData.backend.observability.PipelineMetrics;
+import com.driveMetaData.backend.ratelimit.RateLimitPolicyResolver;
+import com.driveMetaData.backend.repository.RegistrationBatchRepository;
+import com.driveMetaData.backend.repository.UserQueryRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RegistrationService {
 
-    private final RedisService redisService;
+    private final ClientRegistry clientRegistry;
     private final KafkaProducerService kafkaProducerService;
-    private final UserRepository userRepository;
+    private final RegistrationOutboxService registrationOutboxService;
+    private final RegistrationBatchRepository registrationBatchRepository;
+    private final EmailDuplicateFilter emailDuplicateFilter;
+    private final UserQueryRepository userQueryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final KafkaSender<String, Object> reactiveKafkaSender;
+    private final Validator validator;
+    private final PipelineMetrics pipelineMetrics;
+    private final RateLimitPolicyResolver policyResolver;
 
-    public void processRegistration(String clientId, RegistrationRequest request) {
-        String clientStatus = redisService.getClientStatus(clientId)
-                .orElse("inactive");
+    // Registrations taken by the reactive endpoint that Kafka has not acknowledged yet
+    private final AtomicInteger reactiveInFlight = new AtomicInteger();
+
+    // skip keeps the existing row for a known email, update overwrites it
+    @Value("${app.registration.duplicate-mode:skip}")
+    private String duplicateMode;
+
+    @Value("${app.kafka.topic.registration}")
+    private String registrationTopic;
+
+    @Value("${app.registration.reactive.max-in-flight:1000}")
+    private int reactiveMaxInFlight;
 
-        log.info("Client status for Client_id {}: {}", clientId, clientStatus);
+    @Value("${app.registration.reactive.send-timeout-ms:5000}")
+    private long reactiveSendTimeoutMs;
 
-        if ("active".equalsIgnoreCase(clientStatus)) {
-            kafkaProducerService.sendMessage(request);
-            log.info("Queued registration request for Client_id {}", clientId);
+    @Value("${app.registration.batch.max-items:1000}")
+    private int batchMaxItems;
+
+    @Value("${app.registration.batch.send-timeout-ms:30000}")
+    private long batchSendTimeoutMs;
+
+    public void processRegistration(String clientId, RegistrationRequest request) {
+        requireActiveClient(clientId);
+        if (rejectsKnownEmails() && emailDuplicateFilter.isRegistered(request.getEmail())) {
+            log.warn(HotPathSamplingFilter.HOT_PATH, "Registration rejected for Client_id {}: email already registered", clientId);
+            throw new DuplicateRegistrationException("Email is already registered.");
+        }
+        if (registrationOutboxService.isEnabled()) {
+            registrationOutboxService.append(request);
         } else {
-            log.warn("Registration rejected for Client_id {}. Status: {}", clientId, clientStatus);
+            kafkaProducerService.sendMessage(request.getEmail(), request);
+        }
+        log.info(HotPathSamplingFilter.HOT_PATH, "Queued registration request for Client_id {}", clientId);
+    }
+
+    // One read of the registry snapshot, a client missing from it is treated as inactive
+    private ClientRegistry.ClientProfile requireActiveClient(String clientId) {
+        long start = System.nanoTime();
+        ClientRegistry.ClientProfile client = clientRegistry.lookup(clientId);
+        pipelineMetrics.statusLookup(client != null ? "found" : "unknown", pipelineMetrics.tierOf(clientId), start);
+        String clientStatus = client != null ? client.status() : "inactive";
+        log.debug("Client status for Client_id {}: {}", clientId, clientStatus);
+        if (client == null || !client.isActive()) {
+            log.warn(HotPathSamplingFilter.HOT_PATH, "Registration rejected for Client_id {}. Status: {}", clientId, clientStatus);
             throw new IllegalStateException("Client status is '" + clientStatus + "'. Registration not allowed.");
         }
+        return client;
+    }
+
+    /**
+     * Reads a JSON array or an NDJSON stream of registrations one item at a time. A batch may not
+     * exceed the client's own quota where one is set, nor {@code app.registration.batch.max-items}, nor the
+     * capacity of the client's rate limit tier: the batch is charged in one call, and a charge larger than
+     * the bucket could never be granted however long the client waited.
+     */
+    public List<RegistrationRequest> readBatch(String clientId, InputStream body) throws IOException {
+        ClientRegistry.ClientProfile client = clientRegistry.lookup(clientId);
+        int maxItems = client != null && client.maxBatchItems() != null
+                ? Math.min(client.maxBatchItems(), batchMaxItems) : batchMaxItems;
+        int tierCapacity = policyResolver.policyFor(clientId).getCapacity();
+        String limitReason = maxItems <= tierCapacity ? "" : ", the capacity of the client's rate limit tier";
+        maxItems = Math.min(maxItems, tierCapacity);
+        List<RegistrationRequest> items = new ArrayList<>();
+        ObjectReader reader = objectMapper.readerFor(RegistrationRequest.class);
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (items.size() == maxItems) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "A batch may contain at most " + maxItems + " registrations" + limitReason + ".");
+                }
+                // A null item binds to null and is rejected on its own by validateBatch
+                items.add(reader.readValue(parser));
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed batch: " + e.getOriginalMessage());
+        }
+        if (items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch contains no registrations.");
+        }
+        return items;
+    }
+
+    // Bean validation of every item plus emails repeated within the batch, as index -> reason
+    public Map<Integer, String> validateBatch(List<RegistrationRequest> items) {
+        Map<Integer, String> rejected = new HashMap<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            RegistrationRequest item = items.get(i);
+            if (item == null) {
+                rejected.put(i, "Registration is empty.");
+                continue;
+            }
+            Set<ConstraintViolation<RegistrationRequest>> violations = validator.validate(item);
+            if (!violations.isEmpty()) {
+                rejected.put(i, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            } else if (!emails.add(item.getEmail())) {
+                rejected.put(i, "Email appears more than once in the batch.");
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Queues every item not already rejected, with one status lookup for the client and all Kafka sends
+     * in flight together. Items whose send fails or is not acknowledged in time are reported as rejected.
+     * In outbox mode the whole batch is committed to the outbox in one statement instead.
+     */
+    public BatchRegistrationResponse processRegistrationBatch(String clientId, List<RegistrationRequest> items,
+                                                              Map<Integer, String> rejected) {
+        requireActiveClient(clientId);
+
+        Map<Integer, String> reasons = new HashMap<>(rejected);
+        List<Integer> queued = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (reasons.containsKey(i)) {
+                continue;
+            }
+            if (rejectsKnownEmails() && emailDuplicateFilter.isRegistered(items.get(i).getEmail())) {
+                reasons.put(i, "Email is already registered.");
+            } else {
+                queued.add(i);
+            }
+        }
+
+        if (!queued.isEmpty() && registrationOutboxService.isEnabled()) {
+            registrationOutboxService.appendAll(queued.stream().map(items::get).toList());
+        } else if (!queued.isEmpty()) {
+            List<CompletableFuture<SendResult<String, Object>>> sends =
+                    kafkaProducerService.sendMessages(queued.stream().map(items::get).toList(), RegistrationRequest::getEmail);
+            try {
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(batchSendTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                // Outcomes are read per item below
+            }
+            for (int n = 0; n < queued.size(); n++) {
+                CompletableFuture<SendResult<String, Object>> send = sends.get(n);
+                if (!send.isDone()) {
+                    reasons.put(queued.get(n), "Kafka did not acknowledge in time, the registration may still be queued.");
+                } else if (send.isCompletedExceptionally()) {
+                    reasons.put(queued.get(n), "Could not be queued: " + failureMessage(send));
+                }
+            }
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            String reason = reasons.get(i);
+            String email = items.get(i) == null ? null : items.get(i).getEmail();
+            results.add(new BatchItemResult(i, email, reason == null, reason));
+        }
+        int accepted = items.size() - reasons.size();
+        log.info(HotPathSamplingFilter.HOT_PATH, "Batch from Client_id {}: {} queued, {} rejected", clientId, accepted, reasons.size());
+        return new BatchRegistrationResponse(accepted, reasons.size(), results);
+    }
+
+    private static String failureMessage(CompletableFuture<?> future) {
+        try {
+            future.join();
+            return null;
+        } catch (CompletionException | CancellationException e) {
+            return NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        }
+    }
+
+    // Reactive variant of processRegistration, completes once the broker has acknowledged the record
+    public Mono<Void> processRegistrationReactive(String clientId, RegistrationRequest request) {
+        // The MDC stays on the request thread, the send may run on a database thread
+        String correlationId = CorrelationId.current();
+        // The status check is a map read and needs no scheduler, an inactive client fails the Mono
+        return Mono.defer(() -> {
+            requireActiveClient(clientId);
+            return rejectDuplicate(clientId, request).then(Mono.defer(() -> sendReactive(clientId, request, correlationId)));
+        });
+    }
+
+    // In update mode a known email is a re-registration that overwrites the stored row, so it is queued as usual
+    private boolean rejectsKnownEmails() {
+        return RegistrationBatchRepository.DuplicateMode.SKIP.name().equalsIgnoreCase(duplicateMode);
+    }
+
+    private Mono<Void> rejectDuplicate(String clientId, RegistrationRequest request) {
+        if (!rejectsKnownEmails() || !emailDuplicateFilter.mightBeRegistered(request.getEmail())) {
+            return Mono.empty();
+        }
+        // Only a possible duplicate needs the database, and JDBC blocks, so it runs off the request path
+        return Mono.fromCallable(() -> emailDuplicateFilter.isRegistered(request.getEmail()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(registered -> {
+                    if (!registered) {
+                        return Mono.empty();
+                    }
+                    log.warn(HotPathSamplingFilter.HOT_PATH, "Registration rejected for Client_id {}: email already registered", clientId);
+                    return Mono.error(new DuplicateRegistrationException("Email is already registered."));
+                });
+    }
+
+    private Mono<Void> sendReactive(String clientId, RegistrationRequest request, String correlationId) {
+        // When Kafka acknowledges slower than requests arrive, shed the excess instead of queueing it
+        if (reactiveInFlight.incrementAndGet() > reactiveMaxInFlight) {
+            reactiveInFlight.decrementAndGet();
+            log.warn(HotPathSamplingFilter.HOT_PATH, "Registration rejected for Client_id {}: {} registrations awaiting Kafka", clientId, reactiveMaxInFlight);
+            return Mono.error(new RegistrationOverloadedException("Too many registrations awaiting Kafka, try again shortly"));
+        }
+        String tier = pipelineMetrics.tierOf(clientId);
+        ProducerRecord<String, Object> producerRecord = new ProducerRecord<>(registrationTopic, request.getEmail(), request);
+        CorrelationId.addTo(producerRecord.headers(), correlationId, tier);
+        SenderRecord<String, Object, String> record = SenderRecord.create(producerRecord, request.getEmail());
+        long start = System.nanoTime();
+        return reactiveKafkaSender.send(Mono.just(record))
+                .next()
+                .timeout(Duration.ofMillis(reactiveSendTimeoutMs), Mono.error(() ->
+                        new RegistrationOverloadedException("Kafka did not acknowledge the registration in time")))
+                .doOnNext(result -> {
+                    pipelineMetrics.kafkaSendAck(result.exception() == null ? "success" : "failure", tier, start);
+                    log.info(HotPathSamplingFilter.HOT_PATH, "Queued registration request for Client_id {}", clientId);
+                })
+                .doOnError(e -> pipelineMetrics.kafkaSendAck("failure", tier, start))
+                .doFinally(signal -> reactiveInFlight.decrementAndGet())
+                .then();
     }
 
     // Method called by Kafka consumer to save to DB
     @Transactional
+    // Failures propagate, so the listener's error handling can retry the record or dead-letter it
     public void saveRegistration(RegistrationRequest request) {
+        RegistrationBatchResult result = saveRegistrations(List.of(request));
+        if (result.getSkipped().isEmpty()) {
+            log.info(HotPathSamplingFilter.HOT_PATH, "Saved user registration to database");
+        } else {
+            log.info(HotPathSamplingFilter.HOT_PATH, "Skipped duplicate user registration");
+        }
+    }
+
+    // Method called by the batch Kafka consumer, one transaction and one statement per chunk of the poll
+    @Transactional
+    public RegistrationBatchResult saveRegistrations(List<RegistrationRequest> requests) {
+        List<User> users = requests.stream().map(RegistrationService::toUser).toList();
+        long start = System.nanoTime();
+        RegistrationBatchResult result;
+        try {
+            result = registrationBatchRepository.upsertAll(users,
+                    RegistrationBatchRepository.DuplicateMode.valueOf(duplicateMode.toUpperCase()));
+        } catch (RuntimeException e) {
+            pipelineMetrics.dbInsert("failure", CorrelationId.currentTier(), start);
+            throw e;
+        }
+        pipelineMetrics.dbInsert("success", CorrelationId.currentTier(), start);
+        result.getInserted().forEach(emailDuplicateFilter::add);
+
+        log.debug("Saved registrations batch: {} inserted, {} updated, {} skipped",
+                result.getInserted().size(), result.getUpdated().size(), result.getSkipped().size());
+        return result;
+    }
+
+    public static User toUser(RegistrationRequest request) {
         User user = new User();
         user.setName(request.getName());
         user.setEmail(request.getEmail());
         user.setMobile(request.getMobile());
         user.setCity(request.getCity());
+        return user;
+    }
 
-        try {
-            userRepository.save(user);
-            log.info("Successfully saved user registration to database: {}", user.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to save user registration {} to database: {}", request.getEmail(), e.getMessage());
+    // Method to fetch one page of users, keyed on the last id of the previous page
+    public UserPage findRegisteredUsers(Long afterId, int limit, String city, String emailPrefix) {
+        List<UserSummary> items = userQueryRepository.findPage(afterId, limit, city, emailPrefix);
+        Long nextCursor = items.size() < limit ? null : items.get(items.size() - 1).getId();
+        return new UserPage(items, nextCursor);
+    }
+
+    // Streams every matching user as NDJSON, memory use does not depend on the table size
+    public void exportUsersAsNdjson(String city, String emailPrefix, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            streamUsers(city, emailPrefix, rs -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", rs.getLong("id"));
+                    generator.writeStringField("name", rs.getString("name"));
+                    generator.writeStringField("email", rs.getString("email"));
+                    generator.writeStringField("mobile", rs.getString("mobile"));
+                    generator.writeStringField("city", rs.getString("city"));
+                    generator.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeRaw('\n');
+        }
+    }
+
+    // Streams every matching user as CSV with a header row
+    public void exportUsersAsCsv(String city, String emailPrefix, OutputStream out) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write("id,name,email,mobile,city\n");
+            streamUsers(city, emailPrefix, rs -> {
+                try {
+                    writer.write(Long.toString(rs.getLong("id")));
+                    for (String column : new String[]{"name", "email", "mobile", "city"}) {
+                        writer.write(',');
+                        writeCsvField(writer, rs.getString(column));
+                    }
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
         }
     }
 
-    // Method to fetch users
-    public List<User> getAllRegisteredUsers() {
-        return userRepository.findAll();
+    private void streamUsers(String city, String emailPrefix, RowCallbackHandler handler) {
+        // The cursor only streams inside a transaction
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> userQueryRepository.streamAll(city, emailPrefix, 1000, handler));
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+-- Generic cell rate algorithm: stores only the theoretical arrival time (TAT) of the next request.
+--
+-- KEYS[1] string key holding the TAT in milliseconds
+-- ARGV[1] burst capacity
+-- ARGV[2] requests allowed per period
+-- ARGV[3] period in milliseconds
+-- ARGV[4] requests to admit
+-- ARGV[5] maximum requests to admit when a node leases a block of them
+--
+-- Returns {granted (0 when rejected), remaining burst, retry after in milliseconds}
+
+local key = KEYS[1]
+local burst = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2])
+local period_ms = tonumber(ARGV[3])
+local requested = tonumber(ARGV[4])
+local max_grant = tonumber(ARGV[5])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+-- Emission interval between two requests at the sustained rate
+local interval = period_ms / rate
+
+local tat = tonumber(redis.call('GET', key)) or now
+if tat < now then
+    tat = now
+end
+
+-- Requests that fit before the TAT runs past the burst tolerance
+local available = math.floor((now + burst * interval - tat) / interval)
+
+local granted = 0
+local retry_after = 0
+if available >= requested then
+    granted = math.min(available, max_grant)
+    tat = tat + granted * interval
+    redis.call('SET', key, tostring(tat), 'PX', math.ceil(tat - now))
+elseif requested > burst then
+    retry_after = -1
+else
+    retry_after = math.ceil(tat + requested * interval - burst * interval - now)
+end
+
+return {granted, math.max(0, available - granted), retry_after}
@@ -0,0 +1,62 @@
+-- Sliding window counter: weights the previous fixed window by its overlap with the sliding one.
+--
+-- KEYS[1] rate limit hash for the client (fields: start, cur, prev)
+-- ARGV[1] requests allowed per window
+-- ARGV[2] unused, kept so every algorithm takes the same arguments
+-- ARGV[3] window length in milliseconds
+-- ARGV[4] requests to admit
+-- ARGV[5] maximum requests to admit when a node leases a block of them
+--
+-- Returns {granted (0 when rejected), remaining in the window, retry after in milliseconds}
+
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local window_ms = tonumber(ARGV[3])
+local requested = tonumber(ARGV[4])
+local max_grant = tonumber(ARGV[5])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('HMGET', key, 'start', 'cur', 'prev')
+local start = tonumber(state[1])
+local cur = tonumber(state[2]) or 0
+local prev = tonumber(state[3]) or 0
+if start == nil then
+    start = now - (now % window_ms)
+end
+
+local elapsed = now - start
+if elapsed >= window_ms then
+    if elapsed < 2 * window_ms then
+        prev = cur
+    else
+        prev = 0
+    end
+    cur = 0
+    start = now - (now % window_ms)
+    elapsed = now - start
+end
+
+local weight = (window_ms - elapsed) / window_ms
+local used = prev * weight + cur
+
+local granted = 0
+local retry_after = 0
+if used + requested <= limit then
+    granted = math.min(math.floor(limit - used), max_grant)
+    cur = cur + granted
+    used = used + granted
+elseif requested > limit then
+    retry_after = -1
+elseif prev > 0 and cur + requested <= limit then
+    -- Wait until the previous window's weight has decayed enough
+    retry_after = math.ceil((window_ms - elapsed) - (limit - cur - requested) * window_ms / prev)
+else
+    retry_after = window_ms - elapsed
+end
+
+redis.call('HSET', key, 'start', start, 'cur', cur, 'prev', prev)
+redis.call('PEXPIRE', key, 2 * window_ms - elapsed)
+
+return {granted, math.max(0, math.floor(limit - used)), retry_after}
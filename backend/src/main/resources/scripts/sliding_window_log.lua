@@ -0,0 +1,42 @@
+-- Sliding window log: one sorted set entry per admitted request, exact but O(limit) memory.
+--
+-- KEYS[1] sorted set for the client, scores are admission times in milliseconds
+-- ARGV[1] requests allowed per window
+-- ARGV[2] unused, kept so every algorithm takes the same arguments
+-- ARGV[3] window length in milliseconds
+-- ARGV[4] requests to admit
+-- ARGV[5] maximum requests to admit when a node leases a block of them
+--
+-- Returns {granted (0 when rejected), remaining in the window, retry after in milliseconds}
+
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local window_ms = tonumber(ARGV[3])
+local requested = tonumber(ARGV[4])
+local max_grant = tonumber(ARGV[5])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+redis.call('ZREMRANGEBYSCORE', key, '-inf', now - window_ms)
+local count = redis.call('ZCARD', key)
+
+local granted = 0
+local retry_after = 0
+if count + requested <= limit then
+    granted = math.min(limit - count, max_grant)
+    for i = 1, granted do
+        -- Microseconds keep members unique across calls landing in the same millisecond
+        redis.call('ZADD', key, now, time[1] .. time[2] .. ':' .. i)
+    end
+    count = count + granted
+    redis.call('PEXPIRE', key, window_ms)
+elseif requested > limit then
+    retry_after = -1
+else
+    -- Wait until enough of the oldest entries fall out of the window
+    local oldest = redis.call('ZRANGE', key, count + requested - limit - 1, count + requested - limit - 1, 'WITHSCORES')
+    retry_after = tonumber(oldest[2]) + window_ms - now
+end
+
+return {granted, limit - count, retry_after}
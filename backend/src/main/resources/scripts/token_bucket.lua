@@ -0,0 +1,53 @@
+-- Token bucket with continuous refill, refill-and-consume in a single round trip.
+--
+-- KEYS[1] rate limit hash for the client (fields: tokens, ts)
+-- ARGV[1] bucket capacity
+-- ARGV[2] tokens added per refill period
+-- ARGV[3] refill period in milliseconds
+-- ARGV[4] tokens requested
+-- ARGV[5] maximum tokens to grant, larger than ARGV[4] when a node leases a block of tokens
+--
+-- Returns {granted tokens (0 when rejected), remaining tokens, retry after in milliseconds}
+
+local key = KEYS[1]
+local capacity = tonumber(ARGV[1])
+local refill_rate = tonumber(ARGV[2])
+local period_ms = tonumber(ARGV[3])
+local requested = tonumber(ARGV[4])
+local max_grant = tonumber(ARGV[5])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+-- Tokens per millisecond, refilled continuously instead of in whole periods
+local rate = refill_rate / period_ms
+
+local state = redis.call('HMGET', key, 'tokens', 'ts')
+local tokens = tonumber(state[1])
+local last_refill = tonumber(state[2])
+if tokens == nil or last_refill == nil then
+    tokens = capacity
+    last_refill = now
+end
+
+if now > last_refill then
+    tokens = math.min(capacity, tokens + (now - last_refill) * rate)
+    last_refill = now
+end
+
+local granted = 0
+local retry_after = 0
+if tokens >= requested then
+    granted = math.min(math.floor(tokens), max_grant)
+    tokens = tokens - granted
+elseif requested > capacity then
+    retry_after = -1
+else
+    retry_after = math.ceil((requested - tokens) / rate)
+end
+
+redis.call('HSET', key, 'tokens', tostring(tokens), 'ts', last_refill)
+-- Keep the hash only as long as it takes an empty bucket to refill completely
+redis.call('PEXPIRE', key, math.ceil(capacity / rate))
+
+return {granted, math.floor(tokens), retry_after}
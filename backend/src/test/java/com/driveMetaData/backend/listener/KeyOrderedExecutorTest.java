@@ -0,0 +1,93 @@
+package com.driveMetaData.backend.listener;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class KeyOrderedExecutorTest {
+
+	@Test
+	void runsTasksForOneKeyInSubmissionOrder() throws Exception {
+		int keys = 20;
+		int tasksPerKey = 500;
+		Map<Integer, List<Integer>> seen = new ConcurrentHashMap<>();
+		CountDownLatch done = new CountDownLatch(keys * tasksPerKey);
+
+		try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test-worker-", 4, 16)) {
+			for (int n = 0; n < tasksPerKey; n++) {
+				for (int key = 0; key < keys; key++) {
+					int sequence = n;
+					int taskKey = key;
+					executor.execute("key-" + key, () -> {
+						seen.computeIfAbsent(taskKey, k -> Collections.synchronizedList(new ArrayList<>())).add(sequence);
+						done.countDown();
+					});
+				}
+			}
+			Assertions.assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+		}
+
+		Assertions.assertThat(seen).hasSize(keys);
+		seen.values().forEach(sequences -> Assertions.assertThat(sequences).hasSize(tasksPerKey).isSorted());
+	}
+
+	@Test
+	void blocksTheSubmitterWhileTheLaneIsFull() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+
+		try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test-worker-", 1, 2)) {
+			executor.execute("key", () -> {
+				started.countDown();
+				awaitQuietly(release);
+			});
+			Assertions.assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+			// The worker is busy, these two fill the lane
+			executor.execute("key", () -> { });
+			executor.execute("key", () -> { });
+
+			CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+				try {
+					executor.execute("key", () -> { });
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			Thread.sleep(200);
+			Assertions.assertThat(blocked).isNotDone();
+			Assertions.assertThat(executor.queued()).isEqualTo(2);
+
+			release.countDown();
+			blocked.get(5, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	void keepsDrainingAfterATaskFails() throws Exception {
+		CountDownLatch done = new CountDownLatch(1);
+
+		try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test-worker-", 1, 4)) {
+			executor.execute("key", () -> {
+				throw new IllegalStateException("failed on purpose");
+			});
+			executor.execute("key", done::countDown);
+			Assertions.assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
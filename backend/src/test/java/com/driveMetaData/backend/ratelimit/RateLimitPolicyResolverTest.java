@@ -0,0 +1,69 @@
+package com.driveMetaData.backend.ratelimit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class RateLimitPolicyResolverTest {
+
+	@Test
+	void resolvesTierOverridesOverTheDefaults() {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getTiers().put("gold", tier(null, 100, 5));
+		properties.getClientTiers().put("acme", "gold");
+
+		RateLimitPolicyResolver resolver = resolver(properties);
+
+		RateLimitPolicy gold = resolver.policyFor("acme");
+		Assertions.assertThat(gold.getTier()).isEqualTo("gold");
+		Assertions.assertThat(gold.getRefillRate()).isEqualTo(100);
+		Assertions.assertThat(gold.getRefillPeriodSeconds()).isEqualTo(5);
+		Assertions.assertThat(gold.getCapacity()).isEqualTo(properties.getCapacity());
+		Assertions.assertThat(resolver.policyFor("globex").getTier()).isEqualTo(properties.getDefaultTier());
+	}
+
+	@Test
+	void failsStartupOnAZeroRefillRate() {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getTiers().put("broken", tier(null, 0, null));
+
+		Assertions.assertThatThrownBy(() -> resolver(properties))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("'broken'");
+	}
+
+	@Test
+	void failsStartupOnAZeroRefillPeriod() {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setRefillPeriodSeconds(0);
+
+		Assertions.assertThatThrownBy(() -> resolver(properties))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("'" + properties.getDefaultTier() + "'");
+	}
+
+	@Test
+	void failsStartupOnAnUnknownAlgorithm() {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getTiers().put("odd", tier("leaky-bucket", null, null));
+
+		Assertions.assertThatThrownBy(() -> resolver(properties))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("leaky-bucket");
+	}
+
+	private static RateLimitPolicyResolver resolver(RateLimitProperties properties) {
+		RateLimitPolicyResolver resolver = new RateLimitPolicyResolver(properties, List.of(new TokenBucketAlgorithm()), clientId -> null);
+		resolver.init();
+		return resolver;
+	}
+
+	private static RateLimitProperties.Tier tier(String algorithm, Integer refillRate, Integer refillPeriodSeconds) {
+		RateLimitProperties.Tier tier = new RateLimitProperties.Tier();
+		tier.setAlgorithm(algorithm);
+		tier.setRefillRate(refillRate);
+		tier.setRefillPeriodSeconds(refillPeriodSeconds);
+		return tier;
+	}
+}
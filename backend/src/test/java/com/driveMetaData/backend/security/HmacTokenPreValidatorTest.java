@@ -0,0 +1,96 @@
+package com.driveMetaData.backend.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+class HmacTokenPreValidatorTest {
+
+	private static final byte[] SECRET = "a-test-secret-that-is-long-enough-for-hs256".getBytes(StandardCharsets.UTF_8);
+	private static final long NOW = 1_700_000_000_000L;
+	private static final long LATER = NOW / 1000 + 3600;
+
+	private final HmacTokenPreValidator validator = new HmacTokenPreValidator(SECRET);
+
+	@Test
+	void acceptsAValidUnexpiredToken() {
+		String token = sign("{\"sub\":\"jane\",\"exp\":" + LATER + "}");
+
+		Assertions.assertThatCode(() -> validator.check(token, NOW)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void acceptsASubjectNamedExp() {
+		String token = sign("{\"sub\":\"exp\",\"exp\":" + LATER + "}");
+
+		Assertions.assertThatCode(() -> validator.check(token, NOW)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void acceptsARoleNamedExp() {
+		String token = sign("{\"sub\":\"jane\",\"roles\":[\"user\",\"exp\"],\"exp\" : " + LATER + "}");
+
+		Assertions.assertThatCode(() -> validator.check(token, NOW)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void ignoresAnEscapedExpInsideAString() {
+		String token = sign("{\"note\":\"x\\\"exp\\\":1\",\"exp\":" + (NOW / 1000 - 1) + "}");
+
+		Assertions.assertThatThrownBy(() -> validator.check(token, NOW)).isInstanceOf(ExpiredJwtException.class);
+	}
+
+	@Test
+	void acceptsATokenWithoutExp() {
+		String token = sign("{\"sub\":\"exp\"}");
+
+		Assertions.assertThatCode(() -> validator.check(token, NOW)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void rejectsAnExpiredToken() {
+		String token = sign("{\"sub\":\"jane\",\"exp\":" + (NOW / 1000) + "}");
+
+		Assertions.assertThatThrownBy(() -> validator.check(token, NOW)).isInstanceOf(ExpiredJwtException.class);
+	}
+
+	@Test
+	void rejectsAnExpKeyThatIsNotANumber() {
+		String token = sign("{\"sub\":\"jane\",\"exp\":\"soon\"}");
+
+		Assertions.assertThatThrownBy(() -> validator.check(token, NOW)).isInstanceOf(MalformedJwtException.class);
+	}
+
+	@Test
+	void rejectsATamperedSignature() {
+		String token = sign("{\"sub\":\"jane\",\"exp\":" + LATER + "}");
+		String tampered = token.substring(0, token.lastIndexOf('.') + 1) + sign("{\"sub\":\"john\"}").substring(token.lastIndexOf('.') + 1);
+
+		Assertions.assertThatThrownBy(() -> validator.check(tampered, NOW)).isInstanceOf(SignatureException.class);
+	}
+
+	@Test
+	void rejectsATokenWithoutThreeParts() {
+		Assertions.assertThatThrownBy(() -> validator.check("abc.def", NOW)).isInstanceOf(MalformedJwtException.class);
+	}
+
+	private static String sign(String payload) {
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		String signingInput = encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8))
+				+ "." + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(SECRET, "HmacSHA256"));
+			return signingInput + "." + encoder.encodeToString(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.driveMetaData.backend.serialization;
+
+import com.driveMetaData.backend.dto.RegistrationRequest;
+import org.apache.kafka.common.errors.SerializationException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+class RegistrationWireFormatTest {
+
+	@Test
+	void roundTripsEveryField() {
+		RegistrationRequest request = request("Jane Doe", "jane.doe@example.com", "9876543210", "Pune");
+
+		byte[] encoded = RegistrationWireFormat.encode(request);
+
+		Assertions.assertThat(encoded[0]).isEqualTo(RegistrationWireFormat.VERSION_1);
+		Assertions.assertThat(RegistrationWireFormat.isBinary(encoded)).isTrue();
+		Assertions.assertThat(RegistrationWireFormat.decode(encoded)).isEqualTo(request);
+	}
+
+	@Test
+	void roundTripsNullsAndLongMultiByteValues() {
+		RegistrationRequest request = request(null, "jane.doe@example.com", "", "Zürich ".repeat(100));
+
+		Assertions.assertThat(RegistrationWireFormat.decode(RegistrationWireFormat.encode(request))).isEqualTo(request);
+	}
+
+	@Test
+	void readsTheFirstFieldsOfALaterVersionAndIgnoresTrailingBytes() {
+		RegistrationRequest request = request("Jane Doe", "jane.doe@example.com", "9876543210", "Pune");
+		byte[] v1 = RegistrationWireFormat.encode(request);
+		// A version 2 record with one appended field, a varint length prefix and its bytes
+		byte[] appended = "IN".getBytes(StandardCharsets.UTF_8);
+		byte[] v2 = Arrays.copyOf(v1, v1.length + 1 + appended.length);
+		v2[0] = 2;
+		v2[v1.length] = (byte) (appended.length + 1);
+		System.arraycopy(appended, 0, v2, v1.length + 1, appended.length);
+
+		Assertions.assertThat(RegistrationWireFormat.isBinary(v2)).isTrue();
+		Assertions.assertThat(RegistrationWireFormat.decode(v2)).isEqualTo(request);
+	}
+
+	@Test
+	void leavesJsonToTheJsonReader() {
+		Assertions.assertThat(RegistrationWireFormat.isBinary("{\"name\":\"Jane\"}".getBytes(StandardCharsets.UTF_8))).isFalse();
+		Assertions.assertThat(RegistrationWireFormat.isBinary("\t{}".getBytes(StandardCharsets.UTF_8))).isFalse();
+		Assertions.assertThat(RegistrationWireFormat.isBinary(new byte[0])).isFalse();
+	}
+
+	@Test
+	void rejectsATruncatedRecord() {
+		byte[] encoded = RegistrationWireFormat.encode(request("Jane Doe", "jane.doe@example.com", "9876543210", "Pune"));
+
+		Assertions.assertThatThrownBy(() -> RegistrationWireFormat.decode(Arrays.copyOf(encoded, encoded.length - 2)))
+				.isInstanceOf(SerializationException.class);
+	}
+
+	@Test
+	void rejectsALengthPrefixThatOverflowsAnInt() {
+		// Five varint bytes whose last one sets the sign bit, and one that asks for a sixth byte
+		byte[] negative = {RegistrationWireFormat.VERSION_1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 'x'};
+		byte[] tooLong = {RegistrationWireFormat.VERSION_1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x81, 0x01};
+
+		Assertions.assertThatThrownBy(() -> RegistrationWireFormat.decode(negative))
+				.isInstanceOf(SerializationException.class)
+				.hasMessageContaining("Malformed length");
+		Assertions.assertThatThrownBy(() -> RegistrationWireFormat.decode(tooLong))
+				.isInstanceOf(SerializationException.class)
+				.hasMessageContaining("Malformed length");
+	}
+
+	@Test
+	void readsTheLargestFiveByteLengthAsTruncated() {
+		// 0x7FFFFFFF is a valid prefix, the record just does not hold that many bytes
+		byte[] data = {RegistrationWireFormat.VERSION_1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 'x'};
+
+		Assertions.assertThatThrownBy(() -> RegistrationWireFormat.decode(data))
+				.isInstanceOf(SerializationException.class)
+				.hasMessageContaining("Truncated");
+	}
+
+	private static RegistrationRequest request(String name, String email, String mobile, String city) {
+		RegistrationRequest request = new RegistrationRequest();
+		request.setName(name);
+		request.setEmail(email);
+		request.setMobile(mobile);
+		request.setCity(city);
+		return request;
+	}
+}
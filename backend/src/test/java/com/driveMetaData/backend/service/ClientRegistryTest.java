@@ -0,0 +1,195 @@
+package com.driveMetaData.backend.service;
+
+import com.driveMetaData.backend.dto.ClientRequest;
+import com.driveMetaData.backend.entity.Client;
+import com.driveMetaData.backend.ratelimit.RateLimitPolicyResolver;
+import com.driveMetaData.backend.repository.ClientRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+class ClientRegistryTest {
+
+	private static final String CHANNEL = "clients:changed";
+
+	// The clients table, read and written through the mocked repository
+	private final Map<String, Client> table = new ConcurrentHashMap<>();
+
+	private final ClientRepository clientRepository = Mockito.mock(ClientRepository.class);
+	private final StringRedisTemplate redisTemplate = Mockito.mock(StringRedisTemplate.class);
+	private final RedisMessageListenerContainer listenerContainer = Mockito.mock(RedisMessageListenerContainer.class);
+	private final RateLimitPolicyResolver policyResolver = Mockito.mock(RateLimitPolicyResolver.class);
+
+	private ClientRegistry registry;
+	private ClientAdminService adminService;
+
+	@BeforeEach
+	void setUp() {
+		Mockito.when(clientRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(table.values()));
+		Mockito.when(clientRepository.findById(ArgumentMatchers.anyString()))
+				.thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<String>getArgument(0))));
+		Mockito.when(clientRepository.existsById(ArgumentMatchers.anyString()))
+				.thenAnswer(invocation -> table.containsKey(invocation.<String>getArgument(0)));
+		Mockito.when(clientRepository.save(ArgumentMatchers.any(Client.class))).thenAnswer(invocation -> {
+			Client client = invocation.getArgument(0);
+			table.put(client.getClientId(), client);
+			return client;
+		});
+		Mockito.doAnswer(invocation -> table.remove(invocation.<String>getArgument(0)))
+				.when(clientRepository).deleteById(ArgumentMatchers.anyString());
+		Mockito.when(policyResolver.hasTier(ArgumentMatchers.anyString())).thenReturn(true);
+
+		registry = new ClientRegistry(clientRepository, redisTemplate, listenerContainer);
+		ReflectionTestUtils.setField(registry, "changeChannel", CHANNEL);
+		ReflectionTestUtils.setField(registry, "reloadIntervalMs", 3_600_000L);
+		adminService = new ClientAdminService(clientRepository, registry, policyResolver);
+	}
+
+	@AfterEach
+	void tearDown() {
+		registry.shutdown();
+	}
+
+	@Test
+	void loadsTheTableOnStartup() {
+		table.put("acme", client("acme", Client.ACTIVE, "gold"));
+		table.put("globex", client("globex", "suspended", null));
+
+		registry.init();
+
+		Assertions.assertThat(registry.size()).isEqualTo(2);
+		Assertions.assertThat(registry.lookup("acme").isActive()).isTrue();
+		Assertions.assertThat(registry.tierOf("acme")).isEqualTo("gold");
+		Assertions.assertThat(registry.lookup("globex").isActive()).isFalse();
+		Assertions.assertThat(registry.lookup("initech")).isNull();
+		Assertions.assertThat(registry.lookup(null)).isNull();
+	}
+
+	@Test
+	void seesASavedClientAndPublishesTheChange() {
+		registry.init();
+
+		adminService.save("acme", request(Client.ACTIVE, "gold", 25));
+
+		Assertions.assertThat(registry.lookup("acme"))
+				.isEqualTo(new ClientRegistry.ClientProfile("acme", Client.ACTIVE, "gold", 25));
+		Mockito.verify(redisTemplate).convertAndSend(CHANNEL, "acme");
+	}
+
+	@Test
+	void seesAnUpdatedClientAndKeepsTheOthers() {
+		table.put("globex", client("globex", Client.ACTIVE, null));
+		registry.init();
+		adminService.save("acme", request(Client.ACTIVE, "gold", null));
+
+		adminService.save("acme", request("suspended", "silver", 5));
+
+		Assertions.assertThat(registry.lookup("acme"))
+				.isEqualTo(new ClientRegistry.ClientProfile("acme", "suspended", "silver", 5));
+		Assertions.assertThat(registry.lookup("acme").isActive()).isFalse();
+		Assertions.assertThat(registry.lookup("globex")).isNotNull();
+	}
+
+	@Test
+	void forgetsADeletedClient() {
+		table.put("acme", client("acme", Client.ACTIVE, "gold"));
+		registry.init();
+
+		adminService.delete("acme");
+
+		Assertions.assertThat(registry.lookup("acme")).isNull();
+		Assertions.assertThat(registry.tierOf("acme")).isNull();
+		Mockito.verify(redisTemplate).convertAndSend(CHANNEL, "acme");
+	}
+
+	@Test
+	void keepsTheSnapshotWhenPublishingFails() {
+		registry.init();
+		Mockito.when(redisTemplate.convertAndSend(ArgumentMatchers.anyString(), ArgumentMatchers.anyString()))
+				.thenThrow(new DataAccessResourceFailureException("redis down"));
+
+		adminService.save("acme", request(Client.ACTIVE, null, null));
+
+		Assertions.assertThat(registry.lookup("acme")).isNotNull();
+	}
+
+	@Test
+	void reloadsTheWholeTableForAllClients() {
+		registry.init();
+		// Rows written by another node, this node only hears the change message
+		table.put("acme", client("acme", Client.ACTIVE, "gold"));
+		table.put("globex", client("globex", Client.ACTIVE, null));
+
+		deliver(ClientRegistry.ALL_CLIENTS);
+
+		Assertions.assertThat(registry.size()).isEqualTo(2);
+		Mockito.verify(clientRepository, Mockito.times(2)).findAll();
+		Mockito.verify(clientRepository, Mockito.never()).findById(ArgumentMatchers.anyString());
+	}
+
+	@Test
+	void refreshesOneClientOnAChangeMessage() {
+		registry.init();
+		table.put("acme", client("acme", Client.ACTIVE, "gold"));
+		table.put("globex", client("globex", Client.ACTIVE, null));
+
+		deliver("acme");
+
+		Assertions.assertThat(registry.lookup("acme")).isNotNull();
+		Assertions.assertThat(registry.lookup("globex")).isNull();
+	}
+
+	@Test
+	void keepsThePreviousSnapshotWhenARefreshFails() {
+		table.put("acme", client("acme", Client.ACTIVE, "gold"));
+		registry.init();
+		Mockito.when(clientRepository.findById("acme")).thenThrow(new DataAccessResourceFailureException("database down"));
+		Mockito.when(clientRepository.findAll()).thenThrow(new DataAccessResourceFailureException("database down"));
+
+		deliver("acme");
+		deliver(ClientRegistry.ALL_CLIENTS);
+
+		Assertions.assertThat(registry.lookup("acme"))
+				.isEqualTo(new ClientRegistry.ClientProfile("acme", Client.ACTIVE, "gold", null));
+		Assertions.assertThatThrownBy(() -> registry.refresh("acme"))
+				.isInstanceOf(DataAccessResourceFailureException.class);
+		Assertions.assertThat(registry.size()).isEqualTo(1);
+	}
+
+	private void deliver(String clientId) {
+		ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+		Mockito.verify(listenerContainer).addMessageListener(listener.capture(), ArgumentMatchers.any(Topic.class));
+		listener.getValue().onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+				clientId.getBytes(StandardCharsets.UTF_8)), null);
+	}
+
+	private static Client client(String clientId, String status, String tier) {
+		return new Client(clientId, status, tier, null, Instant.now());
+	}
+
+	private static ClientRequest request(String status, String tier, Integer maxBatchItems) {
+		ClientRequest request = new ClientRequest();
+		request.setStatus(status);
+		request.setTier(tier);
+		request.setMaxBatchItems(maxBatchItems);
+		return request;
+	}
+}
@@ -0,0 +1,191 @@
+package com.driveMetaData.backend.service;
+
+import com.driveMetaData.backend.repository.UserRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+class EmailDuplicateFilterTest {
+
+	private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+	private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+	private final TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+
+	@Test
+	void findsEveryLoadedAndAddedEmail() throws Exception {
+		List<String> stored = emails("stored", 5_000);
+		streamFromTable(stored);
+		EmailDuplicateFilter filter = filter(10_000, 0.01);
+
+		filter.warmUp();
+		awaitReady(filter);
+		List<String> added = emails("added", 5_000);
+		added.forEach(filter::add);
+
+		// A false negative would let a duplicate through
+		stored.forEach(email -> Assertions.assertThat(filter.mightBeRegistered(email)).as(email).isTrue());
+		added.forEach(email -> Assertions.assertThat(filter.mightBeRegistered(email)).as(email).isTrue());
+	}
+
+	@Test
+	void keepsFalsePositivesNearTheConfiguredRate() throws Exception {
+		streamFromTable(List.of());
+		EmailDuplicateFilter filter = filter(10_000, 0.01);
+		filter.warmUp();
+		awaitReady(filter);
+		emails("registered", 10_000).forEach(filter::add);
+
+		long falsePositives = emails("new", 10_000).stream().filter(filter::mightBeRegistered).count();
+
+		// 1% expected, a skewed bit index would fill some words and push this far higher
+		Assertions.assertThat(falsePositives).isLessThan(250);
+	}
+
+	@Test
+	void setsAtMostHashCountBitsPerEmail() throws Exception {
+		streamFromTable(List.of());
+		EmailDuplicateFilter filter = filter(1_000, 0.01);
+		filter.warmUp();
+		awaitReady(filter);
+
+		filter.add("jane.doe@example.com");
+		filter.add("jane.doe@example.com");
+
+		Object bloom = ReflectionTestUtils.getField(filter, "bloom");
+		AtomicLongArray bits = (AtomicLongArray) ReflectionTestUtils.getField(bloom, "bits");
+		int hashCount = (int) ReflectionTestUtils.getField(bloom, "hashCount");
+		long bitCount = (long) ReflectionTestUtils.getField(bloom, "bitCount");
+		int set = 0;
+		for (int word = 0; word < bits.length(); word++) {
+			set += Long.bitCount(bits.get(word));
+		}
+		Assertions.assertThat(hashCount).isEqualTo(7);
+		Assertions.assertThat(bitCount).isGreaterThanOrEqualTo(9_585);
+		Assertions.assertThat(set).isBetween(1, hashCount);
+	}
+
+	@Test
+	void neverRejectsUntilTheTableIsLoaded() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		Mockito.when(transactionTemplate.execute(ArgumentMatchers.any())).thenAnswer(invocation -> {
+			loading.await(5, TimeUnit.SECONDS);
+			return 0L;
+		});
+		Mockito.when(userRepository.existsByEmail(ArgumentMatchers.anyString())).thenReturn(true);
+		EmailDuplicateFilter filter = filter(1_000, 0.01);
+
+		filter.warmUp();
+		filter.add("jane.doe@example.com");
+
+		Assertions.assertThat(filter.mightBeRegistered("jane.doe@example.com")).isFalse();
+		Assertions.assertThat(filter.isRegistered("jane.doe@example.com")).isFalse();
+		Mockito.verify(userRepository, Mockito.never()).existsByEmail(ArgumentMatchers.anyString());
+
+		loading.countDown();
+		awaitReady(filter);
+		Assertions.assertThat(filter.isRegistered("jane.doe@example.com")).isTrue();
+	}
+
+	@Test
+	void staysOffWhenLoadingFails() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		Mockito.when(transactionTemplate.execute(ArgumentMatchers.any())).thenAnswer(invocation -> {
+			attempts.incrementAndGet();
+			throw new TransactionException("database down") {
+			};
+		});
+		EmailDuplicateFilter filter = filter(1_000, 0.01);
+
+		filter.warmUp();
+		filter.add("jane.doe@example.com");
+		while (attempts.get() == 0) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(50);
+
+		Assertions.assertThat(filter.mightBeRegistered("jane.doe@example.com")).isFalse();
+		Assertions.assertThat(filter.isRegistered("jane.doe@example.com")).isFalse();
+	}
+
+	@Test
+	void confirmsAPossibleDuplicateInTheDatabase() throws Exception {
+		streamFromTable(List.of());
+		EmailDuplicateFilter filter = filter(1_000, 0.01);
+		filter.warmUp();
+		awaitReady(filter);
+		filter.add("jane.doe@example.com");
+		Mockito.when(userRepository.existsByEmail("jane.doe@example.com")).thenReturn(false);
+
+		// A filter hit the database does not confirm is a false positive, the email is new
+		Assertions.assertThat(filter.isRegistered("jane.doe@example.com")).isFalse();
+		Assertions.assertThat(filter.isRegistered("john.doe@example.com")).isFalse();
+		Mockito.verify(userRepository).existsByEmail("jane.doe@example.com");
+		Mockito.verify(userRepository, Mockito.never()).existsByEmail("john.doe@example.com");
+	}
+
+	@Test
+	void doesNothingWhenDisabled() {
+		EmailDuplicateFilter filter = filter(1_000, 0.01);
+		ReflectionTestUtils.setField(filter, "enabled", false);
+
+		filter.warmUp();
+		filter.add("jane.doe@example.com");
+
+		Assertions.assertThat(filter.mightBeRegistered("jane.doe@example.com")).isFalse();
+		Mockito.verifyNoInteractions(transactionTemplate);
+	}
+
+	private EmailDuplicateFilter filter(long expectedEmails, double falsePositiveRate) {
+		EmailDuplicateFilter filter = new EmailDuplicateFilter(userRepository, jdbcTemplate, transactionTemplate);
+		ReflectionTestUtils.setField(filter, "enabled", true);
+		ReflectionTestUtils.setField(filter, "expectedEmails", expectedEmails);
+		ReflectionTestUtils.setField(filter, "falsePositiveRate", falsePositiveRate);
+		return filter;
+	}
+
+	// The warm-up query reads these rows through a mocked connection, inside the mocked transaction
+	private void streamFromTable(List<String> emails) throws Exception {
+		ResultSet resultSet = Mockito.mock(ResultSet.class);
+		int[] row = {-1};
+		Mockito.when(resultSet.next()).thenAnswer(invocation -> ++row[0] < emails.size());
+		Mockito.when(resultSet.getString(1)).thenAnswer(invocation -> emails.get(row[0]));
+		Statement statement = Mockito.mock(Statement.class);
+		Mockito.when(statement.executeQuery(ArgumentMatchers.anyString())).thenReturn(resultSet);
+		Connection connection = Mockito.mock(Connection.class);
+		Mockito.when(connection.createStatement()).thenReturn(statement);
+		DataSource dataSource = Mockito.mock(DataSource.class);
+		Mockito.when(dataSource.getConnection()).thenReturn(connection);
+		Mockito.when(jdbcTemplate.getDataSource()).thenReturn(dataSource);
+		Mockito.when(transactionTemplate.execute(ArgumentMatchers.any()))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
+	private static void awaitReady(EmailDuplicateFilter filter) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!(boolean) ReflectionTestUtils.getField(filter, "ready")) {
+			Assertions.assertThat(System.currentTimeMillis()).as("filter ready in time").isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private static List<String> emails(String prefix, int count) {
+		return IntStream.range(0, count).mapToObj(i -> prefix + "." + i + "@example.com").toList();
+	}
+}
@@ -0,0 +1,240 @@
+package com.driveMetaData.backend.service;
+
+import com.driveMetaData.backend.dto.RateLimitDecision;
+import com.driveMetaData.backend.observability.PipelineMetrics;
+import com.driveMetaData.backend.ratelimit.RateLimitPolicyResolver;
+import com.driveMetaData.backend.ratelimit.RateLimitProperties;
+import com.driveMetaData.backend.ratelimit.TokenBucketAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RateLimiterServiceTest {
+
+	private static final int CAPACITY = 1000;
+
+	private final FixedBucketRedisTemplate redis = new FixedBucketRedisTemplate(CAPACITY);
+
+	@Test
+	void concurrentTakesNeverExceedTheTokensRedisGranted() throws Exception {
+		RateLimiterService service = service(10, 60_000, 100);
+		int threads = 16;
+		int attempts = 200;
+		AtomicInteger allowed = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> workers = new ArrayList<>();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			for (int t = 0; t < threads; t++) {
+				workers.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < attempts; i++) {
+						if (service.allowRequest("acme")) {
+							allowed.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> worker : workers) {
+				worker.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Assertions.assertThat(redis.granted()).isLessThanOrEqualTo(CAPACITY);
+		Assertions.assertThat(allowed.get()).isPositive().isLessThanOrEqualTo((int) redis.granted());
+	}
+
+	@Test
+	void concurrentRefillsMergeIntoOneLease() throws Exception {
+		RateLimiterService service = service(10, 60_000, 100);
+		redis.holdFirstCalls(2);
+
+		CompletableFuture<RateLimitDecision> first = CompletableFuture.supplyAsync(() -> service.tryAcquire("acme", 1));
+		CompletableFuture<RateLimitDecision> second = CompletableFuture.supplyAsync(() -> service.tryAcquire("acme", 1));
+		Assertions.assertThat(first.get(5, TimeUnit.SECONDS).isAllowed()).isTrue();
+		Assertions.assertThat(second.get(5, TimeUnit.SECONDS).isAllowed()).isTrue();
+		Assertions.assertThat(redis.calls()).isEqualTo(2);
+
+		// Both calls took ten tokens and spent one, the other eighteen are in the lease
+		for (int i = 0; i < 18; i++) {
+			Assertions.assertThat(service.allowRequest("acme")).isTrue();
+		}
+		Assertions.assertThat(redis.calls()).isEqualTo(2);
+		Assertions.assertThat(service.allowRequest("acme")).isTrue();
+		Assertions.assertThat(redis.calls()).isEqualTo(3);
+	}
+
+	@Test
+	void anExpiredLeaseFallsBackToRedis() throws Exception {
+		RateLimiterService service = service(10, 50, 100);
+
+		Assertions.assertThat(service.allowRequest("acme")).isTrue();
+		Assertions.assertThat(service.allowRequest("acme")).isTrue();
+		Assertions.assertThat(redis.calls()).isEqualTo(1);
+
+		Thread.sleep(100);
+
+		Assertions.assertThat(service.allowRequest("acme")).isTrue();
+		Assertions.assertThat(redis.calls()).isEqualTo(2);
+	}
+
+	@Test
+	void aRejectionDropsTheLease() {
+		FixedBucketRedisTemplate small = new FixedBucketRedisTemplate(10);
+		RateLimiterService service = service(small, 10, 60_000, 100);
+
+		Assertions.assertThat(service.tryAcquire("acme", 1).isAllowed()).isTrue();
+		Assertions.assertThat(service.tryAcquire("acme", 10).isAllowed()).isFalse();
+
+		Assertions.assertThat(service.allowRequest("acme")).isFalse();
+		Assertions.assertThat(small.calls()).isEqualTo(3);
+	}
+
+	@Test
+	void reachingMaxEntriesEvictsLeases() {
+		RateLimiterService service = service(10, 60_000, 2);
+
+		service.allowRequest("acme");
+		service.allowRequest("globex");
+		Assertions.assertThat(leases(service)).containsOnlyKeys("acme", "globex");
+
+		service.allowRequest("initech");
+
+		Assertions.assertThat(leases(service)).hasSize(2).containsKey("initech");
+		// The client that kept its lease is still served locally, the one that lost it goes back to Redis
+		String kept = leases(service).containsKey("acme") ? "acme" : "globex";
+		String evicted = kept.equals("acme") ? "globex" : "acme";
+		int calls = redis.calls();
+		service.allowRequest(kept);
+		Assertions.assertThat(redis.calls()).isEqualTo(calls);
+		service.allowRequest(evicted);
+		Assertions.assertThat(redis.calls()).isEqualTo(calls + 1);
+	}
+
+	@Test
+	void expiredLeasesAreEvictedBeforeLiveOnes() throws Exception {
+		RateLimiterService service = service(10, 50, 2);
+		service.allowRequest("acme");
+		service.allowRequest("globex");
+		Thread.sleep(100);
+		properties(service).getLease().setTtlMs(60_000);
+
+		service.allowRequest("initech");
+		service.allowRequest("acme");
+
+		Assertions.assertThat(leases(service)).containsOnlyKeys("initech", "acme");
+	}
+
+	private RateLimiterService service(int leaseSize, long ttlMs, int maxEntries) {
+		return service(redis, leaseSize, ttlMs, maxEntries);
+	}
+
+	private static RateLimiterService service(StringRedisTemplate redis, int leaseSize, long ttlMs, int maxEntries) {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setCapacity(CAPACITY);
+		// No refill within a test, so Redis grants exactly the capacity
+		properties.setRefillRate(1);
+		properties.setRefillPeriodSeconds(86_400);
+		properties.getLease().setSize(leaseSize);
+		properties.getLease().setTtlMs(ttlMs);
+		properties.getLease().setMaxEntries(maxEntries);
+
+		RateLimitPolicyResolver resolver = new RateLimitPolicyResolver(properties, List.of(new TokenBucketAlgorithm()), clientId -> null);
+		resolver.init();
+		RateLimiterService service = new RateLimiterService(redis, Mockito.mock(ReactiveStringRedisTemplate.class),
+				properties, resolver, new PipelineMetrics(new SimpleMeterRegistry(), resolver));
+		service.init();
+		return service;
+	}
+
+	private static RateLimitProperties properties(RateLimiterService service) {
+		return (RateLimitProperties) ReflectionTestUtils.getField(service, "properties");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, ?> leases(RateLimiterService service) {
+		return (Map<String, ?>) ReflectionTestUtils.getField(service, "leases");
+	}
+
+	/**
+	 * A bucket that never refills, answering with the same {granted, remaining, retryAfterMillis} as the scripts,
+	 * so every token the service spends can be traced back to a grant.
+	 */
+	private static final class FixedBucketRedisTemplate extends StringRedisTemplate {
+
+		private final long capacity;
+		private long tokens;
+		private long granted;
+		private final AtomicInteger calls = new AtomicInteger();
+		private volatile CyclicBarrier barrier;
+		private volatile int held;
+
+		private FixedBucketRedisTemplate(long capacity) {
+			this.capacity = capacity;
+			this.tokens = capacity;
+		}
+
+		// The first n calls wait for each other after the bucket is debited, so their leases are stored together
+		private void holdFirstCalls(int n) {
+			held = n;
+			barrier = new CyclicBarrier(n);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+			long requested = Long.parseLong((String) args[3]);
+			long maxGrant = Long.parseLong((String) args[4]);
+			int call = calls.incrementAndGet();
+			List<Long> result;
+			synchronized (this) {
+				if (tokens >= requested) {
+					long grant = Math.min(tokens, maxGrant);
+					tokens -= grant;
+					granted += grant;
+					result = List.of(grant, tokens, 0L);
+				} else {
+					result = List.of(0L, tokens, requested > capacity ? -1L : 1000L);
+				}
+			}
+			if (call <= held) {
+				try {
+					barrier.await(5, TimeUnit.SECONDS);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+			return (T) result;
+		}
+
+		private synchronized long granted() {
+			return granted;
+		}
+
+		private int calls() {
+			return calls.get();
+		}
+	}
+}
@@ -0,0 +1,238 @@
+package com.driveMetaData.backend.service;
+
+import com.driveMetaData.backend.dto.BatchRegistrationResponse;
+import com.driveMetaData.backend.dto.RegistrationRequest;
+import com.driveMetaData.backend.entity.Client;
+import com.driveMetaData.backend.exception.DuplicateRegistrationException;
+import com.driveMetaData.backend.observability.PipelineMetrics;
+import com.driveMetaData.backend.ratelimit.RateLimitPolicyResolver;
+import com.driveMetaData.backend.ratelimit.RateLimitProperties;
+import com.driveMetaData.backend.ratelimit.TokenBucketAlgorithm;
+import com.driveMetaData.backend.repository.RegistrationBatchRepository;
+import com.driveMetaData.backend.repository.UserQueryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.KafkaSender;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+class RegistrationServiceTest {
+
+	private static final String CLIENT = "acme";
+
+	private final ClientRegistry clientRegistry = Mockito.mock(ClientRegistry.class);
+	private final KafkaProducerService kafkaProducerService = Mockito.mock(KafkaProducerService.class);
+	private final RegistrationOutboxService registrationOutboxService = Mockito.mock(RegistrationOutboxService.class);
+	private final EmailDuplicateFilter emailDuplicateFilter = Mockito.mock(EmailDuplicateFilter.class);
+	private final KafkaSender<String, Object> reactiveKafkaSender = mockSender();
+	private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+	private final RateLimitProperties rateLimitProperties = new RateLimitProperties();
+
+	private RegistrationService service;
+
+	@BeforeEach
+	void setUp() {
+		rateLimitProperties.setCapacity(10);
+		RateLimitPolicyResolver policyResolver = new RateLimitPolicyResolver(rateLimitProperties,
+				List.of(new TokenBucketAlgorithm()), clientId -> null);
+		policyResolver.init();
+		service = new RegistrationService(clientRegistry, kafkaProducerService, registrationOutboxService,
+				Mockito.mock(RegistrationBatchRepository.class), emailDuplicateFilter, Mockito.mock(UserQueryRepository.class),
+				Mockito.mock(TransactionTemplate.class), Jackson2ObjectMapperBuilder.json().build(), reactiveKafkaSender, validator,
+				new PipelineMetrics(new SimpleMeterRegistry(), policyResolver), policyResolver);
+		ReflectionTestUtils.setField(service, "duplicateMode", "skip");
+		ReflectionTestUtils.setField(service, "registrationTopic", "registration");
+		ReflectionTestUtils.setField(service, "reactiveMaxInFlight", 10);
+		ReflectionTestUtils.setField(service, "reactiveSendTimeoutMs", 5000L);
+		ReflectionTestUtils.setField(service, "batchMaxItems", 1000);
+		ReflectionTestUtils.setField(service, "batchSendTimeoutMs", 5000L);
+
+		Mockito.when(clientRegistry.lookup(CLIENT)).thenReturn(new ClientRegistry.ClientProfile(CLIENT, Client.ACTIVE, null, null));
+		Mockito.when(emailDuplicateFilter.isRegistered("known@example.com")).thenReturn(true);
+		Mockito.when(emailDuplicateFilter.mightBeRegistered("known@example.com")).thenReturn(true);
+		Mockito.when(kafkaProducerService.sendMessages(ArgumentMatchers.anyList(), ArgumentMatchers.any()))
+				.thenAnswer(invocation -> invocation.<List<?>>getArgument(0).stream()
+						.map(item -> CompletableFuture.completedFuture(null))
+						.toList());
+	}
+
+	@Test
+	void rejectsAKnownEmailInSkipMode() {
+		Assertions.assertThatThrownBy(() -> service.processRegistration(CLIENT, request("known@example.com")))
+				.isInstanceOf(DuplicateRegistrationException.class);
+		Mockito.verify(kafkaProducerService, Mockito.never()).sendMessage(ArgumentMatchers.any(), ArgumentMatchers.any());
+	}
+
+	@Test
+	void queuesAKnownEmailInUpdateMode() {
+		ReflectionTestUtils.setField(service, "duplicateMode", "update");
+		RegistrationRequest request = request("known@example.com");
+
+		service.processRegistration(CLIENT, request);
+
+		Mockito.verify(kafkaProducerService).sendMessage("known@example.com", request);
+		Mockito.verifyNoInteractions(emailDuplicateFilter);
+	}
+
+	@Test
+	void rejectsKnownEmailsInABatchOnlyInSkipMode() {
+		List<RegistrationRequest> items = List.of(request("known@example.com"), request("new@example.com"));
+
+		BatchRegistrationResponse skipped = service.processRegistrationBatch(CLIENT, items, Map.of());
+		ReflectionTestUtils.setField(service, "duplicateMode", "update");
+		BatchRegistrationResponse updated = service.processRegistrationBatch(CLIENT, items, Map.of());
+
+		Assertions.assertThat(skipped.getAccepted()).isEqualTo(1);
+		Assertions.assertThat(skipped.getResults().get(0).getReason()).isEqualTo("Email is already registered.");
+		Assertions.assertThat(updated.getAccepted()).isEqualTo(2);
+		Mockito.verify(emailDuplicateFilter, Mockito.times(2)).isRegistered(ArgumentMatchers.anyString());
+	}
+
+	@Test
+	void rejectsAKnownEmailReactivelyOnlyInSkipMode() {
+		Assertions.assertThatThrownBy(() -> service.processRegistrationReactive(CLIENT, request("known@example.com")).block())
+				.isInstanceOf(DuplicateRegistrationException.class);
+
+		ReflectionTestUtils.setField(service, "duplicateMode", "update");
+		service.processRegistrationReactive(CLIENT, request("known@example.com")).block();
+
+		Mockito.verify(emailDuplicateFilter, Mockito.times(1)).mightBeRegistered(ArgumentMatchers.anyString());
+		Mockito.verify(reactiveKafkaSender).send(ArgumentMatchers.any());
+	}
+
+	@Test
+	void readsAJsonArrayAndNdjsonAlike() throws IOException {
+		String first = json("jane@example.com");
+		String second = json("john@example.com");
+
+		List<RegistrationRequest> array = service.readBatch(CLIENT, body("[" + first + "," + second + "]"));
+		List<RegistrationRequest> ndjson = service.readBatch(CLIENT, body(first + "\n" + second + "\n"));
+
+		Assertions.assertThat(array).extracting(RegistrationRequest::getEmail).containsExactly("jane@example.com", "john@example.com");
+		Assertions.assertThat(ndjson).isEqualTo(array);
+	}
+
+	@Test
+	void capsABatchAtMaxItems() {
+		ReflectionTestUtils.setField(service, "batchMaxItems", 3);
+
+		assertPayloadTooLarge(4, "A batch may contain at most 3 registrations.");
+	}
+
+	@Test
+	void capsABatchAtTheClientQuota() {
+		Mockito.when(clientRegistry.lookup(CLIENT)).thenReturn(new ClientRegistry.ClientProfile(CLIENT, Client.ACTIVE, null, 2));
+
+		assertPayloadTooLarge(3, "A batch may contain at most 2 registrations.");
+	}
+
+	@Test
+	void capsABatchAtTheTierCapacity() {
+		Mockito.when(clientRegistry.lookup(CLIENT)).thenReturn(new ClientRegistry.ClientProfile(CLIENT, Client.ACTIVE, null, 50));
+
+		assertPayloadTooLarge(11,
+				"A batch may contain at most 10 registrations, the capacity of the client's rate limit tier.");
+	}
+
+	@Test
+	void acceptsABatchExactlyAtTheCap() throws IOException {
+		Assertions.assertThat(service.readBatch(CLIENT, body(ndjson(10)))).hasSize(10);
+	}
+
+	@Test
+	void rejectsAnEmptyOrMalformedBatch() {
+		Assertions.assertThatThrownBy(() -> service.readBatch(CLIENT, body("[]")))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> Assertions.assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+		Assertions.assertThatThrownBy(() -> service.readBatch(CLIENT, body("[" + json("jane@example.com") + ",{")))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> Assertions.assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+	}
+
+	@Test
+	void reportsEachRejectedItemByIndex() throws IOException {
+		String invalid = "{\"name\":\"\",\"email\":\"not-an-email\",\"mobile\":\"123\",\"city\":\"Pune\"}";
+		List<RegistrationRequest> items = service.readBatch(CLIENT, body("[" + json("jane@example.com") + ",null,"
+				+ invalid + "," + json("jane@example.com") + "," + json("john@example.com") + "]"));
+
+		Map<Integer, String> rejected = service.validateBatch(items);
+
+		Assertions.assertThat(items).hasSize(5);
+		Assertions.assertThat(rejected).containsOnlyKeys(1, 2, 3);
+		Assertions.assertThat(rejected.get(1)).isEqualTo("Registration is empty.");
+		Assertions.assertThat(rejected.get(2)).isEqualTo("email: Email should be valid, "
+				+ "mobile: Mobile number must be 10 digits, name: Name is mandatory");
+		Assertions.assertThat(rejected.get(3)).isEqualTo("Email appears more than once in the batch.");
+	}
+
+	@Test
+	void reportsRejectedAndQueuedItemsInOrder() throws IOException {
+		List<RegistrationRequest> items = service.readBatch(CLIENT, body("[" + json("jane@example.com") + ",null,"
+				+ json("known@example.com") + "]"));
+
+		BatchRegistrationResponse response = service.processRegistrationBatch(CLIENT, items, service.validateBatch(items));
+
+		Assertions.assertThat(response.getAccepted()).isEqualTo(1);
+		Assertions.assertThat(response.getRejected()).isEqualTo(2);
+		Assertions.assertThat(response.getResults()).extracting(result -> result.getIndex() + ":" + result.isAccepted())
+				.containsExactly("0:true", "1:false", "2:false");
+		Mockito.verify(kafkaProducerService).sendMessages(ArgumentMatchers.argThat(queued -> queued.size() == 1), ArgumentMatchers.any());
+	}
+
+	private void assertPayloadTooLarge(int items, String message) {
+		Assertions.assertThatThrownBy(() -> service.readBatch(CLIENT, body(ndjson(items))))
+				.isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+					Assertions.assertThat(e.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+					Assertions.assertThat(e.getReason()).isEqualTo(message);
+				});
+	}
+
+	private static String ndjson(int items) {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < items; i++) {
+			body.append(json("user" + i + "@example.com")).append('\n');
+		}
+		return body.toString();
+	}
+
+	private static String json(String email) {
+		return "{\"name\":\"Jane Doe\",\"email\":\"" + email + "\",\"mobile\":\"9876543210\",\"city\":\"Pune\"}";
+	}
+
+	private static ByteArrayInputStream body(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static KafkaSender<String, Object> mockSender() {
+		KafkaSender<String, Object> sender = Mockito.mock(KafkaSender.class);
+		Mockito.when(sender.send(ArgumentMatchers.any())).thenReturn(Flux.empty());
+		return sender;
+	}
+
+	static RegistrationRequest request(String email) {
+		RegistrationRequest request = new RegistrationRequest();
+		request.setName("Jane Doe");
+		request.setEmail(email);
+		request.setMobile("9876543210");
+		request.setCity("Pune");
+		return request;
+	}
+}
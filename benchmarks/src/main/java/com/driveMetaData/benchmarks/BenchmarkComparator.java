@@ -0,0 +1,117 @@
+package com.driveMetaData.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and fails when a benchmark got slower than the threshold allows.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar -rf json -rff baseline.json
+ * # ... change the code, rebuild ...
+ * java -jar benchmarks/target/benchmarks.jar -rf json -rff current.json
+ * java -cp benchmarks/target/benchmarks.jar com.driveMetaData.benchmarks.BenchmarkComparator \
+ *     --baseline=baseline.json --current=current.json --threshold=10
+ * </pre>
+ *
+ * Results are matched on benchmark name and parameters. Throughput is better when higher, every other mode
+ * when lower. A change counts as a regression only when it is beyond {@code --threshold} percent and larger
+ * than the two runs' combined score error, so noise between runs is not reported. Exits with status 1 when
+ * any benchmark regressed.
+ */
+public class BenchmarkComparator {
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        if (!options.containsKey("baseline") || !options.containsKey("current")) {
+            System.err.println("Usage: BenchmarkComparator --baseline=<jmh.json> --current=<jmh.json> [--threshold=10]");
+            System.exit(2);
+        }
+        double threshold = Double.parseDouble(options.getOrDefault("threshold", "10"));
+
+        Map<String, JsonNode> baseline = load(new File(options.get("baseline")));
+        Map<String, JsonNode> current = load(new File(options.get("current")));
+
+        System.out.printf("%-70s %14s %14s %9s  %s%n", "benchmark", "baseline", "current", "change", "");
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            JsonNode afterMetric = after.path("primaryMetric");
+            String unit = afterMetric.path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-70s %14s %14s %9s  %s%n", entry.getKey(), "-",
+                        format(afterMetric.path("score").asDouble(), unit), "", "new");
+                continue;
+            }
+
+            JsonNode beforeMetric = before.path("primaryMetric");
+            double beforeScore = beforeMetric.path("score").asDouble();
+            double afterScore = afterMetric.path("score").asDouble();
+            double noise = error(beforeMetric) + error(afterMetric);
+            // Positive when the benchmark got worse, whichever direction that is for its mode
+            double worse = "thrpt".equals(after.path("mode").asText()) ? beforeScore - afterScore : afterScore - beforeScore;
+            double changePercent = beforeScore == 0 ? 0 : 100.0 * (afterScore - beforeScore) / beforeScore;
+
+            String verdict = "";
+            if (worse > noise && 100.0 * worse / beforeScore > threshold) {
+                verdict = "REGRESSION";
+                regressions++;
+            } else if (-worse > noise && 100.0 * -worse / beforeScore > threshold) {
+                verdict = "improved";
+            }
+            System.out.printf("%-70s %14s %14s %+8.1f%%  %s%n", entry.getKey(),
+                    format(beforeScore, unit), format(afterScore, unit), changePercent, verdict);
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("%-70s %14s %14s %9s  %s%n", key, "", "-", "", "missing"));
+
+        System.out.printf("%d regression(s) beyond %.1f%%%n", regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    // benchmark name with its sorted parameters -> JMH result
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replace("com.driveMetaData.benchmarks.", ""));
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    // JMH writes NaN for the error of a single measurement iteration
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(double score, String unit) {
+        return String.format("%.3f %s", score, unit.replace("ops/", "/").replace("/op", ""));
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
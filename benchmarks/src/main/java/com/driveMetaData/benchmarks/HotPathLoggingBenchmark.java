@@ -0,0 +1,157 @@
+package com.driveMetaData.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.driveMetaData.backend.observability.CorrelationId;
+import com.driveMetaData.backend.observability.HotPathSamplingFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The log lines one registration writes on its way from the controller to the consumer, into a discarding
+ * console. Run with the GC profiler, {@code gc.alloc.rate.norm} is the allocation per registration:
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar HotPathLoggingBenchmark -prof gc
+ * </pre>
+ *
+ * {@code sync} is the previous setup: seven INFO lines through a synchronous console appender, two of them with
+ * the full request. {@code async} writes the same lines through the async appender. {@code sampled} is the
+ * current setup, the remaining per-request lines are marked hot path and capped at 20 per second each, so
+ * nearly every call is rejected before an event is built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotPathLoggingBenchmark {
+
+    // What Lombok printed for RegistrationRequest before personal details were left out of toString
+    private record LegacyRequest(String name, String email, String mobile, String city) {
+        @Override
+        public String toString() {
+            return "RegistrationRequest(name=" + name + ", email=" + email + ", mobile=" + mobile + ", city=" + city + ")";
+        }
+    }
+
+    @Param({"sync", "async", "sampled"})
+    public String setup;
+
+    private LoggerContext context;
+    private Logger controllerLog;
+    private Logger serviceLog;
+    private Logger producerLog;
+    private Logger consumerLog;
+
+    private final String clientId = "10";
+    private final String topic = "registration";
+    private final LegacyRequest request = new LegacyRequest("Jane Doe", "jane.doe@example.com", "9876543210", "Pune");
+    private int partition = 3;
+    private long offset = 1_000_000L;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] [%X{correlationId:-}] %-40.40logger{39} : %m%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setName("CONSOLE");
+        console.setEncoder(encoder);
+        console.setOutputStream(OutputStream.nullOutputStream());
+        console.start();
+
+        Appender<ILoggingEvent> appender = console;
+        if (!"sync".equals(setup)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC_CONSOLE");
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(console);
+            async.start();
+            appender = async;
+        }
+        if ("sampled".equals(setup)) {
+            HotPathSamplingFilter filter = new HotPathSamplingFilter();
+            filter.setMaxPerSecond(20);
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        root.addAppender(appender);
+
+        controllerLog = context.getLogger("com.driveMetaData.backend.controller.RegistrationController");
+        serviceLog = context.getLogger("com.driveMetaData.backend.service.RegistrationService");
+        producerLog = context.getLogger("com.driveMetaData.backend.service.KafkaProducerService");
+        consumerLog = context.getLogger("com.driveMetaData.backend.listener.RegistrationConsumer");
+
+        MDC.put(CorrelationId.MDC_KEY, "3f1c2a9e-5b7d-4e8a-9c61-0d2f4b6a8e13");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MDC.remove(CorrelationId.MDC_KEY);
+        context.stop();
+    }
+
+    @Benchmark
+    public void registration() {
+        if ("sampled".equals(setup)) {
+            current();
+        } else {
+            previous();
+        }
+    }
+
+    private void previous() {
+        controllerLog.info("Received registration request from Client_id: {}", clientId);
+        serviceLog.info("Client status for Client_id {}: {}", clientId, "active");
+        producerLog.info("Sending message to topic {}: {}", topic, request);
+        producerLog.info("Message sent successfully to topic {} partition {} @ offset {}", topic, partition, offset);
+        serviceLog.info("Queued registration request for Client_id {}", clientId);
+        consumerLog.info("Received message from Kafka partition {}:{} - {}", partition, offset, request);
+        serviceLog.info("Successfully saved user registration to database: {}", request.email());
+    }
+
+    // Same statements as they read now, the acknowledged send no longer logs at all
+    private void current() {
+        controllerLog.info(HotPathSamplingFilter.HOT_PATH, "Received registration request from Client_id: {}", clientId);
+        serviceLog.debug("Client status for Client_id {}: {}", clientId, "active");
+        serviceLog.info(HotPathSamplingFilter.HOT_PATH, "Queued registration request for Client_id {}", clientId);
+        if (consumerLog.isDebugEnabled()) {
+            consumerLog.debug("Received message from Kafka partition {}:{}", partition, offset);
+        }
+        serviceLog.info(HotPathSamplingFilter.HOT_PATH, "Saved user registration to database");
+    }
+}
@@ -0,0 +1,50 @@
+package com.driveMetaData.benchmarks;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Stand-in for Redis that evaluates the token bucket script in the JVM, so a benchmark measures the
+ * rate limiter's own decision logic without a server or a network round trip. Same arguments and result
+ * as {@code scripts/token_bucket.lua}, whichever script is passed in.
+ */
+final class InProcessRedisTemplate extends StringRedisTemplate {
+
+    // key -> {tokens, last refill in ms}
+    private final ConcurrentMap<String, double[]> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        long capacity = Long.parseLong((String) args[0]);
+        double rate = Double.parseDouble((String) args[1]) / Double.parseDouble((String) args[2]);
+        long requested = Long.parseLong((String) args[3]);
+        long maxGrant = Long.parseLong((String) args[4]);
+        long now = System.currentTimeMillis();
+
+        long[] result = new long[3];
+        buckets.compute(keys.get(0), (key, state) -> {
+            double tokens = state == null ? capacity : Math.min(capacity, state[0] + Math.max(0, now - state[1]) * rate);
+            if (tokens >= requested) {
+                result[0] = Math.min((long) Math.floor(tokens), maxGrant);
+                tokens -= result[0];
+            } else if (requested > capacity) {
+                result[2] = -1;
+            } else {
+                result[2] = (long) Math.ceil((requested - tokens) / rate);
+            }
+            result[1] = (long) Math.floor(tokens);
+            return new double[]{tokens, now};
+        });
+        return (T) List.of(result[0], result[1], result[2]);
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        return buckets.remove(key) != null;
+    }
+}
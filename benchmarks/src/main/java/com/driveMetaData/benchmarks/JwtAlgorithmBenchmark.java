@@ -0,0 +1,65 @@
+package com.driveMetaData.benchmarks;
+
+import com.driveMetaData.backend.security.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing and of verifying one token for each supported {@code app.jwt.algorithm}.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar JwtAlgorithmBenchmark
+ * </pre>
+ *
+ * Verification is what every authenticated request pays on a principal cache miss, signing only happens on login.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtAlgorithmBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private JwtUtil jwtUtil;
+    private UserDetails user;
+    private String jwt;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = JwtFixtures.jwtUtil(algorithm);
+        user = new User("benchmark", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        jwt = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Object verify() {
+        return jwtUtil.parseToken(jwt);
+    }
+}
@@ -0,0 +1,33 @@
+package com.driveMetaData.benchmarks;
+
+import com.driveMetaData.backend.security.JwtKeyRing;
+import com.driveMetaData.backend.security.JwtUtil;
+import org.springframework.beans.DirectFieldAccessor;
+
+/**
+ * Builds a {@link JwtUtil} outside Spring, with the same fields the application properties would set.
+ */
+final class JwtFixtures {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private JwtFixtures() {
+    }
+
+    // ES256 and EdDSA run with an ephemeral key pair, which signs and verifies like a keystore entry
+    static JwtUtil jwtUtil(String algorithm) {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        DirectFieldAccessor ringFields = new DirectFieldAccessor(keyRing);
+        ringFields.setPropertyValue("algorithm", algorithm);
+        ringFields.setPropertyValue("secret", SECRET);
+        ringFields.setPropertyValue("keystorePath", "");
+        ringFields.setPropertyValue("keystorePassword", "");
+        ringFields.setPropertyValue("activeKid", "");
+        keyRing.init();
+
+        JwtUtil jwtUtil = new JwtUtil(keyRing);
+        new DirectFieldAccessor(jwtUtil).setPropertyValue("expirationMs", 3_600_000L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,99 @@
+package com.driveMetaData.benchmarks;
+
+import com.driveMetaData.backend.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.nio.charset.StandardCharsets;
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse-and-validate throughput of the request filter's JWT handling, before and after the parser
+ * was shared and the signature pre-check was added.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar JwtParseBenchmark
+ * </pre>
+ *
+ * {@code legacy} builds a new parser for every claim it reads and reads three claims per request, as the
+ * filter used to do with extractUsername plus validateToken. {@code current} is one {@link JwtUtil#parseToken}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtParseBenchmark {
+
+    @Param({"valid", "expired", "tampered", "malformed"})
+    public String token;
+
+    private JwtUtil jwtUtil;
+    private SecretKey key;
+    private String jwt;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = JwtFixtures.jwtUtil("HS256");
+        key = Keys.hmacShaKeyFor(JwtFixtures.SECRET.getBytes(StandardCharsets.UTF_8));
+
+        String valid = jwtUtil.generateToken(new User("benchmark", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        jwt = switch (token) {
+            case "valid" -> valid;
+            case "expired" -> Jwts.builder()
+                    .subject("benchmark")
+                    .expiration(new Date(System.currentTimeMillis() - 60_000))
+                    .signWith(key, Jwts.SIG.HS256)
+                    .compact();
+            case "tampered" -> valid.substring(0, valid.length() - 4) + (valid.endsWith("AAAA") ? "BBBB" : "AAAA");
+            case "malformed" -> "not-a-jwt";
+            default -> throw new IllegalArgumentException(token);
+        };
+    }
+
+    @Benchmark
+    public Object legacy() {
+        try {
+            String username = legacyClaims().getSubject();
+            boolean valid = username.equals(legacyClaims().getSubject()) && !legacyClaims().getExpiration().before(new Date());
+            return valid ? username : null;
+        } catch (JwtException | IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object current() {
+        try {
+            return jwtUtil.parseToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    private Claims legacyClaims() {
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(jwt).getPayload();
+    }
+}
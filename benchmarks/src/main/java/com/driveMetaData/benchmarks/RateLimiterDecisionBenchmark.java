@@ -0,0 +1,84 @@
+package com.driveMetaData.benchmarks;
+
+import com.driveMetaData.backend.dto.RateLimitDecision;
+import com.driveMetaData.backend.observability.PipelineMetrics;
+import com.driveMetaData.backend.ratelimit.RateLimitPolicyResolver;
+import com.driveMetaData.backend.ratelimit.RateLimitProperties;
+import com.driveMetaData.backend.ratelimit.TokenBucketAlgorithm;
+import com.driveMetaData.backend.service.RateLimiterService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RateLimiterService#tryAcquire} against {@link InProcessRedisTemplate}: policy lookup, local leases and
+ * turning script results into decisions, with the Redis round trip taken out. Add the measured Redis latency
+ * to compare with production.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar RateLimiterDecisionBenchmark
+ * </pre>
+ *
+ * {@code leaseSize} 1 evaluates the bucket on every call, larger values spend most calls from the local lease.
+ * The bucket refills fast enough that the hot client is mostly allowed, other clients exercise the map lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RateLimiterDecisionBenchmark {
+
+    @Param({"1", "100"})
+    public int leaseSize;
+
+    @Param({"1", "10000"})
+    public int clients;
+
+    private RateLimiterService rateLimiterService;
+    private String[] clientIds;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setCapacity(1_000_000);
+        properties.setRefillRate(1_000_000_000);
+        properties.setRefillPeriodSeconds(1);
+        properties.getLease().setSize(leaseSize);
+
+        RateLimitPolicyResolver policyResolver = new RateLimitPolicyResolver(properties, List.of(new TokenBucketAlgorithm()),
+                clientId -> null);
+        policyResolver.init();
+        // The reactive template is only used by tryAcquireReactive, decision timers are recorded as in production
+        rateLimiterService = new RateLimiterService(new InProcessRedisTemplate(), null, properties, policyResolver,
+                new PipelineMetrics(new SimpleMeterRegistry(), policyResolver));
+        rateLimiterService.init();
+
+        clientIds = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientIds[i] = "client-" + i;
+        }
+    }
+
+    @Benchmark
+    public RateLimitDecision tryAcquire() {
+        return rateLimiterService.tryAcquire(clientIds[ThreadLocalRandom.current().nextInt(clientIds.length)], 1);
+    }
+}
@@ -0,0 +1,166 @@
+package com.driveMetaData.benchmarks;
+
+import com.driveMetaData.backend.ratelimit.GcraAlgorithm;
+import com.driveMetaData.backend.ratelimit.RateLimitAlgorithm;
+import com.driveMetaData.backend.ratelimit.RateLimitPolicy;
+import com.driveMetaData.backend.ratelimit.SlidingWindowCounterAlgorithm;
+import com.driveMetaData.backend.ratelimit.SlidingWindowLogAlgorithm;
+import com.driveMetaData.backend.ratelimit.TokenBucketAlgorithm;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the Redis memory and CPU each rate limit algorithm costs with a large number of distinct clients.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am install -DskipTests
+ * mvn -pl benchmarks exec:java -Dexec.args="--clients=1000000 --requests=5 --database=15"
+ * </pre>
+ *
+ * The selected database is flushed before every run, point it at a dedicated Redis instance.
+ */
+public class RateLimiterFootprintBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String host = options.getOrDefault("host", "localhost");
+        int port = Integer.parseInt(options.getOrDefault("port", "6379"));
+        int database = Integer.parseInt(options.getOrDefault("database", "15"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000000"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "5"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "32"));
+
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(host, port);
+        config.setDatabase(database);
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(config);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        List<RateLimitAlgorithm> algorithms = List.of(
+                new TokenBucketAlgorithm(),
+                new SlidingWindowLogAlgorithm(),
+                new SlidingWindowCounterAlgorithm(),
+                new GcraAlgorithm());
+
+        System.out.printf("%d clients x %d requests, %d threads%n", clients, requests, threads);
+        System.out.printf("%-24s %10s %14s %14s %12s %12s%n",
+                "algorithm", "keys", "memory (MB)", "bytes/client", "cpu (s)", "us/call");
+
+        for (RateLimitAlgorithm algorithm : algorithms) {
+            // Capacity 10 per minute, so the sliding window log keeps every request of the run
+            RateLimitPolicy policy = new RateLimitPolicy("benchmark", algorithm, 10, 10, 60);
+            run(redisTemplate, algorithm, policy, clients, requests, threads);
+        }
+
+        connectionFactory.destroy();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void run(StringRedisTemplate redisTemplate, RateLimitAlgorithm algorithm, RateLimitPolicy policy,
+                            int clients, int requests, int threads) throws InterruptedException, ExecutionException {
+        Object[] arguments = algorithm.arguments(policy, 1, 1).toArray();
+
+        try (RedisConnection connection = redisTemplate.getRequiredConnectionFactory().getConnection()) {
+            connection.serverCommands().flushDb();
+            connection.serverCommands().resetConfigStats();
+        }
+        // Load the script once so every timed call is an EVALSHA, the key it leaves must not count as a client
+        redisTemplate.execute(algorithm.script(), Collections.singletonList("warmup"), arguments);
+        redisTemplate.delete("warmup");
+
+        long memoryBefore = info(redisTemplate, "memory", "used_memory");
+        double cpuBefore = cpuSeconds(redisTemplate);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                int client;
+                while ((client = next.getAndIncrement()) < clients) {
+                    List<String> key = Collections.singletonList(algorithm.key("client_" + client));
+                    for (int r = 0; r < requests; r++) {
+                        redisTemplate.execute(algorithm.script(), key, arguments);
+                    }
+                }
+            }));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
+            executor.shutdownNow();
+            throw new IllegalStateException(algorithm.name() + " run did not finish within an hour");
+        }
+        // A failed Redis call would otherwise leave a table that looks complete
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+
+        long keys;
+        String usecPerCall;
+        try (RedisConnection connection = redisTemplate.getRequiredConnectionFactory().getConnection()) {
+            keys = connection.serverCommands().dbSize();
+            usecPerCall = commandStat(connection.serverCommands().info("commandstats"), "cmdstat_evalsha", "usec_per_call");
+        }
+        long memory = info(redisTemplate, "memory", "used_memory") - memoryBefore;
+        double cpu = cpuSeconds(redisTemplate) - cpuBefore;
+
+        System.out.printf("%-24s %10d %14.1f %14d %12.2f %12s%n",
+                algorithm.name(), keys, memory / (1024.0 * 1024.0), memory / Math.max(1, clients), cpu, usecPerCall);
+    }
+
+    private static long info(StringRedisTemplate redisTemplate, String section, String field) {
+        try (RedisConnection connection = redisTemplate.getRequiredConnectionFactory().getConnection()) {
+            Properties info = connection.serverCommands().info(section);
+            return Long.parseLong(info.getProperty(field).trim());
+        }
+    }
+
+    private static double cpuSeconds(StringRedisTemplate redisTemplate) {
+        try (RedisConnection connection = redisTemplate.getRequiredConnectionFactory().getConnection()) {
+            Properties info = connection.serverCommands().info("cpu");
+            return Double.parseDouble(info.getProperty("used_cpu_user").trim())
+                    + Double.parseDouble(info.getProperty("used_cpu_sys").trim());
+        }
+    }
+
+    // commandstats lines look like cmdstat_evalsha:calls=10,usec=42,usec_per_call=4.20,...
+    private static String commandStat(Properties commandStats, String command, String field) {
+        String line = commandStats.getProperty(command);
+        if (line == null) {
+            return "n/a";
+        }
+        for (String pair : line.split(",")) {
+            String[] parts = pair.split("=");
+            if (parts.length == 2 && parts[0].trim().equals(field)) {
+                return parts[1].trim();
+            }
+        }
+        return "n/a";
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,78 @@
+package com.driveMetaData.benchmarks;
+
+import com.driveMetaData.backend.dto.RegistrationRequest;
+import com.driveMetaData.backend.serialization.RegistrationDeserializer;
+import com.driveMetaData.backend.serialization.RegistrationSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize and deserialize cost of one registration record in each Kafka value format, using the same
+ * serializer and deserializer classes as the producer and consumer.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar RegistrationSerializationBenchmark
+ * </pre>
+ *
+ * Each fork prints the serialized size of the sample record, the bytes per record for that format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistrationSerializationBenchmark {
+
+    private static final String TOPIC = "registration";
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private RegistrationSerializer serializer;
+    private RegistrationDeserializer deserializer;
+    private RegistrationRequest request;
+    private byte[] record;
+
+    @Setup
+    public void setUp() {
+        serializer = new RegistrationSerializer();
+        serializer.configure(Map.of(RegistrationSerializer.FORMAT_CONFIG, format,
+                JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        deserializer = new RegistrationDeserializer();
+        deserializer.configure(Map.of(), false);
+
+        request = new RegistrationRequest();
+        request.setName("Priya Sharma");
+        request.setEmail("priya.sharma@example.com");
+        request.setMobile("9876543210");
+        request.setCity("Pune");
+        record = serializer.serialize(TOPIC, new RecordHeaders(), request);
+        System.out.printf("%s: %d bytes per record%n", format, record.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), request);
+    }
+
+    @Benchmark
+    public RegistrationRequest deserialize() {
+        return deserializer.deserialize(TOPIC, new RecordHeaders(), record);
+    }
+}
@@ -0,0 +1,70 @@
+package com.driveMetaData.benchmarks;
+
+import com.driveMetaData.backend.dto.RegistrationRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean validation cost of one {@link RegistrationRequest}, as paid by every single and batch registration.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar RegistrationValidationBenchmark
+ * </pre>
+ *
+ * {@code invalid} breaks the email and mobile constraints, building violation messages costs more than passing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistrationValidationBenchmark {
+
+    @Param({"valid", "invalid"})
+    public String input;
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private RegistrationRequest request;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        request = new RegistrationRequest();
+        request.setName("Priya Sharma");
+        request.setEmail("valid".equals(input) ? "priya.sharma@example.com" : "priya.sharma@");
+        request.setMobile("valid".equals(input) ? "9876543210" : "98765");
+        request.setCity("Pune");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<RegistrationRequest>> validate() {
+        return validator.validate(request);
+    }
+}
@@ -0,0 +1,187 @@
+package com.driveMetaData.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts the backend twice with the same heap, once on platform threads and once with
+ * {@code spring.threads.virtual.enabled=true}, and drives one endpoint at rising concurrency levels.
+ * For each level it prints throughput, p50/p99 latency and errors, and for each mode the highest
+ * concurrency that stayed within the latency SLO with under 1% errors.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am install -DskipTests
+ * mvn -pl benchmarks exec:java -Dexec.mainClass=com.driveMetaData.benchmarks.ThreadModeLoadTest \
+ *     -Dexec.args="--jar=backend/target/backend-0.0.1-SNAPSHOT-exec.jar --heap=512m --levels=100,200,400,800,1600"
+ * </pre>
+ *
+ * Needs the backend's PostgreSQL, Redis and Kafka, and Java 21+ for the virtual thread run. The default
+ * target is POST /api/v1/register for the active client 10, every request with a unique email.
+ */
+public class ThreadModeLoadTest {
+
+    private static final String DEFAULT_BODY =
+            "{\"name\":\"Load Test\",\"email\":\"loadtest-{n}@example.com\",\"mobile\":\"9876543210\",\"city\":\"Pune\"}";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String jar = options.getOrDefault("jar", "backend/target/backend-0.0.1-SNAPSHOT-exec.jar");
+        String java = options.getOrDefault("java", ProcessHandle.current().info().command().orElse("java"));
+        String heap = options.getOrDefault("heap", "512m");
+        int port = Integer.parseInt(options.getOrDefault("port", "18080"));
+        String method = options.getOrDefault("method", "POST");
+        String path = options.getOrDefault("path", "/api/v1/register");
+        String body = options.getOrDefault("body", DEFAULT_BODY);
+        String clientId = options.getOrDefault("client-id", "10");
+        int[] levels = Arrays.stream(options.getOrDefault("levels", "50,100,200,400,800,1600").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "20"));
+        long sloMillis = Long.parseLong(options.getOrDefault("slo-ms", "1000"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+
+        System.out.printf("%s %s, heap %s, %d s per level, SLO p99 <= %d ms%n", method, path, heap, durationSeconds, sloMillis);
+        for (boolean virtual : new boolean[]{false, true}) {
+            String mode = virtual ? "virtual" : "platform";
+            Process server = new ProcessBuilder(java, "-Xms" + heap, "-Xmx" + heap, "-jar", jar,
+                    "--server.port=" + port, "--spring.threads.virtual.enabled=" + virtual)
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File("benchmarks/target/loadtest-" + mode + ".log"))
+                    .start();
+            try {
+                String baseUrl = "http://localhost:" + port;
+                HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+                awaitStarted(client, baseUrl, server);
+                String token = authenticate(client, baseUrl, options);
+                // Unmeasured run at the first level so JIT compilation does not land in the results
+                runLevel(client, baseUrl, method, path, body, clientId, token, levels[0], warmupSeconds);
+
+                System.out.printf("%n%-10s %8s %12s %10s %10s %10s%n", mode, "level", "req/s", "p50 (ms)", "p99 (ms)", "errors");
+                int maxWithinSlo = 0;
+                for (int level : levels) {
+                    LevelResult result = runLevel(client, baseUrl, method, path, body, clientId, token, level, durationSeconds);
+                    System.out.printf("%-10s %8d %12.1f %10d %10d %10d%n", mode, level,
+                            result.requests / (double) durationSeconds, result.p50, result.p99, result.errors);
+                    if (result.p99 <= sloMillis && result.errors < result.requests / 100.0) {
+                        maxWithinSlo = level;
+                    }
+                }
+                System.out.printf("%-10s max concurrency within SLO: %d%n", mode, maxWithinSlo);
+            } finally {
+                server.destroy();
+                if (!server.waitFor(30, TimeUnit.SECONDS)) {
+                    server.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    private record LevelResult(long requests, long errors, long p50, long p99) {
+    }
+
+    // Closed loop: exactly level requests are in flight until the duration is over
+    private static LevelResult runLevel(HttpClient client, String baseUrl, String method, String path, String body,
+                                        String clientId, String token, int level, int durationSeconds) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(level);
+        AtomicLong sequence = new AtomicLong(System.nanoTime());
+        AtomicLong errors = new AtomicLong();
+        List<Long> latencies = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        while (System.nanoTime() < deadline) {
+            inFlight.acquire();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Client_id", clientId)
+                    .header("Content-Type", "application/json")
+                    .method(method, "GET".equals(method) ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofString(body.replace("{n}", Long.toString(sequence.incrementAndGet()))))
+                    .build();
+            long started = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                synchronized (latencies) {
+                    latencies.add(elapsedMillis);
+                }
+                if (failure != null || response.statusCode() >= 500) {
+                    errors.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(level);
+
+        long[] sorted;
+        synchronized (latencies) {
+            sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        return new LevelResult(sorted.length, errors.get(), percentile(sorted, 0.50), percentile(sorted, 0.99));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static void awaitStarted(HttpClient client, String baseUrl, Process server) throws Exception {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/authenticate"))
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .header("Content-Type", "application/json")
+                .build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(3);
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Backend exited with " + server.exitValue() + ", see benchmarks/target/loadtest-*.log");
+            }
+            try {
+                client.send(health, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (Exception e) {
+                Thread.sleep(1000);
+            }
+        }
+        throw new IllegalStateException("Backend did not start within 3 minutes");
+    }
+
+    private static String authenticate(HttpClient client, String baseUrl, Map<String, String> options) throws Exception {
+        Map<String, String> credentials = Map.of(
+                "username", options.getOrDefault("username", "admin"),
+                "password", options.getOrDefault("password", "admin123"));
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/authenticate"))
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(credentials)))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = client.send(login, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
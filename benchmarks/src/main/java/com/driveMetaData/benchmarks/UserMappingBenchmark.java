@@ -0,0 +1,73 @@
+package com.driveMetaData.benchmarks;
+
+import com.driveMetaData.backend.dto.RegistrationRequest;
+import com.driveMetaData.backend.entity.User;
+import com.driveMetaData.backend.service.RegistrationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping consumed registrations to {@link User} entities, once per record on the single consumer and once
+ * per poll on the batch consumer, using the same {@link RegistrationService#toUser} both paths call.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar UserMappingBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    // Matches the consumer's default max.poll.records
+    @Param({"500"})
+    public int batchSize;
+
+    private RegistrationRequest request;
+    private List<RegistrationRequest> batch;
+
+    @Setup
+    public void setUp() {
+        request = request(0);
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(request(i));
+        }
+    }
+
+    @Benchmark
+    public User mapOne() {
+        return RegistrationService.toUser(request);
+    }
+
+    @Benchmark
+    public List<User> mapBatch() {
+        return batch.stream().map(RegistrationService::toUser).toList();
+    }
+
+    private static RegistrationRequest request(int i) {
+        RegistrationRequest request = new RegistrationRequest();
+        request.setName("Priya Sharma " + i);
+        request.setEmail("priya.sharma" + i + "@example.com");
+        request.setMobile(String.valueOf(9_000_000_000L + i));
+        request.setCity("Pune");
+        return request;
+    }
+}
@@ -19,12 +19,18 @@ import {
   TextField,
   InputAdornment,
   Chip,
+  Button,
 } from "@mui/material";
 import RefreshIcon from "@mui/icons-material/Refresh";
 import SearchIcon from "@mui/icons-material/Search";
 
+// Rows fetched per request, further pages are loaded on demand with the returned cursor
+const FETCH_SIZE = 500;
+
 function UserTable() {
   const [users, setUsers] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
   const [filteredUsers, setFilteredUsers] = useState([]);
   const [error, setError] = useState("");
   const [isLoading, setIsLoading] = useState(false);
@@ -34,23 +40,43 @@ function UserTable() {
   const [order, setOrder] = useState("asc");
   const [searchTerm, setSearchTerm] = useState("");
 
+  const showFetchError = (err) => {
+    const errorMsg =
+      err.response?.data || err.message || "Failed to fetch users.";
+    console.error("Fetch Users Error:", err.response || err);
+    setError(`Error: ${errorMsg}`);
+  };
+
   const loadUsers = async () => {
     setIsLoading(true);
     setError("");
     try {
-      const response = await fetchUsers();
-      setUsers(response.data);
-      setFilteredUsers(response.data);
+      const response = await fetchUsers({ limit: FETCH_SIZE });
+      setUsers(response.data.items);
+      setNextCursor(response.data.nextCursor);
+      setPage(0);
     } catch (err) {
-      const errorMsg =
-        err.response?.data || err.message || "Failed to fetch users.";
-      console.error("Fetch Users Error:", err.response || err);
-      setError(`Error: ${errorMsg}`);
+      showFetchError(err);
     } finally {
       setIsLoading(false);
     }
   };
 
+  // Appends the next page after the last row already loaded
+  const loadMoreUsers = async () => {
+    setIsLoadingMore(true);
+    setError("");
+    try {
+      const response = await fetchUsers({ limit: FETCH_SIZE, after: nextCursor });
+      setUsers((loaded) => [...loaded, ...response.data.items]);
+      setNextCursor(response.data.nextCursor);
+    } catch (err) {
+      showFetchError(err);
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     loadUsers();
   }, []);
@@ -71,9 +97,13 @@ function UserTable() {
       });
       setFilteredUsers(filtered);
     }
-    setPage(0);
   }, [searchTerm, users]);
 
+  // Loading more rows keeps the current page, a new search starts from the first
+  useEffect(() => {
+    setPage(0);
+  }, [searchTerm]);
+
   const handleChangePage = (event, newPage) => {
     setPage(newPage);
   };
@@ -252,6 +282,20 @@ function UserTable() {
             onRowsPerPageChange={handleChangeRowsPerPage}
             sx={{ mt: 2 }}
           />
+
+          {nextCursor !== null && nextCursor !== undefined && (
+            <Box sx={{ display: "flex", justifyContent: "center", mt: 1 }}>
+              <Button
+                variant="outlined"
+                onClick={loadMoreUsers}
+                disabled={isLoadingMore}
+              >
+                {isLoadingMore
+                  ? "Loading..."
+                  : `Load more users (${users.length} loaded)`}
+              </Button>
+            </Box>
+          )}
         </>
       )}
     </div>
@@ -56,9 +56,9 @@ export const registerUser = (userData, clientId) => {
   });
 };
 
-// User list API
-export const fetchUsers = () => {
-  return apiClient.get("/users");
+// User list API, keyset paginated: pass the previous page's nextCursor as "after"
+export const fetchUsers = (params = {}) => {
+  return apiClient.get("/users", { params });
 };
 
 export default apiClient;
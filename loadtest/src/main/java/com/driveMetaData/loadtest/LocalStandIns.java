@@ -0,0 +1,200 @@
+package com.driveMetaData.loadtest;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import redis.embedded.RedisServer;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Containerless stand-ins for the backend's infrastructure: a KRaft broker from spring-kafka-test, the
+ * redis-server binary bundled with embedded-redis, and either the local PostgreSQL or a throwaway cluster
+ * unpacked from the zonky PostgreSQL binaries. {@link #backendArguments} points the backend at all three.
+ */
+final class LocalStandIns implements AutoCloseable {
+
+    private final EmbeddedKafkaKraftBroker kafka;
+    private final RedisServer redis;
+    private final int redisPort;
+    private final String jdbcUrl;
+    private final String dbUser;
+    private final String dbPassword;
+    private final Path postgresData;
+    private final Path postgresHome;
+
+    private LocalStandIns(EmbeddedKafkaKraftBroker kafka, RedisServer redis, int redisPort, String jdbcUrl,
+                          String dbUser, String dbPassword, Path postgresHome, Path postgresData) {
+        this.kafka = kafka;
+        this.redis = redis;
+        this.redisPort = redisPort;
+        this.jdbcUrl = jdbcUrl;
+        this.dbUser = dbUser;
+        this.dbPassword = dbPassword;
+        this.postgresHome = postgresHome;
+        this.postgresData = postgresData;
+    }
+
+    /**
+     * @param postgres   {@code local} to use {@code jdbcUrl} as is, {@code embedded} for a fresh cluster in workDir
+     * @param partitions partitions of the registration topic, as the backend would create it
+     */
+    static LocalStandIns start(String postgres, String jdbcUrl, String dbUser, String dbPassword,
+                               int partitions, Path workDir) throws Exception {
+        EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, partitions);
+        kafka.afterPropertiesSet();
+
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+
+        Path postgresHome = null;
+        Path postgresData = null;
+        try {
+            if ("embedded".equals(postgres)) {
+                postgresHome = workDir.resolve("postgres");
+                postgresData = workDir.resolve("postgres-data");
+                int port = freePort();
+                startEmbeddedPostgres(postgresHome, postgresData, port, dbUser);
+                createDatabase("jdbc:postgresql://localhost:" + port + "/postgres", dbUser, "registration_db");
+                jdbcUrl = "jdbc:postgresql://localhost:" + port + "/registration_db?reWriteBatchedInserts=true";
+                dbPassword = "";
+            } else if (!"local".equals(postgres)) {
+                throw new IllegalArgumentException("--postgres must be local or embedded, not " + postgres);
+            }
+        } catch (Exception e) {
+            // The broker's threads would otherwise keep the JVM alive after the failure
+            redis.stop();
+            kafka.destroy();
+            throw e;
+        }
+        return new LocalStandIns(kafka, redis, redisPort, jdbcUrl, dbUser, dbPassword, postgresHome, postgresData);
+    }
+
+    String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    String dbUser() {
+        return dbUser;
+    }
+
+    String dbPassword() {
+        return dbPassword;
+    }
+
+    List<String> backendArguments() {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString());
+        arguments.add("--spring.data.redis.host=localhost");
+        arguments.add("--spring.data.redis.port=" + redisPort);
+        arguments.add("--spring.datasource.url=" + jdbcUrl);
+        arguments.add("--spring.datasource.username=" + dbUser);
+        arguments.add("--spring.datasource.password=" + dbPassword);
+        return arguments;
+    }
+
+    // The backend only reads client status, the load test client has to be marked active up front
+    @Override
+    public void close() throws Exception {
+        if (postgresData != null) {
+            run(postgresHome.resolve("bin/pg_ctl").toString(), "-D", postgresData.toString(), "-m", "fast", "-w", "stop");
+        }
+        redis.stop();
+        kafka.destroy();
+    }
+
+    private static void startEmbeddedPostgres(Path home, Path data, int port, String user) throws Exception {
+        if (!Files.exists(home.resolve("bin/postgres"))) {
+            unpackPostgres(home);
+        }
+        deleteRecursively(data);
+        run(home.resolve("bin/initdb").toString(), "-D", data.toString(), "-U", user, "-A", "trust", "-E", "UTF8");
+        run(home.resolve("bin/pg_ctl").toString(), "-D", data.toString(), "-l", data.resolve("postgres.log").toString(),
+                "-o", "-p " + port + " -F -c max_connections=200", "-w", "start");
+    }
+
+    // The binaries jar holds a single postgres-linux-x86_64.txz, including symlinks for the shared libraries
+    private static void unpackPostgres(Path home) throws IOException {
+        Files.createDirectories(home);
+        InputStream archive = LocalStandIns.class.getResourceAsStream("/postgres-linux-x86_64.txz");
+        if (archive == null) {
+            throw new IllegalStateException("PostgreSQL binaries for linux-amd64 are not on the classpath");
+        }
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(new XZCompressorInputStream(new BufferedInputStream(archive)))) {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextEntry()) != null) {
+                Path target = home.resolve(entry.getName()).normalize();
+                if (!target.startsWith(home)) {
+                    throw new IOException("Archive entry outside the target directory: " + entry.getName());
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                } else if (entry.isSymbolicLink()) {
+                    Files.createDirectories(target.getParent());
+                    Files.deleteIfExists(target);
+                    Files.createSymbolicLink(target, Paths.get(entry.getLinkName()));
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.copy(tar, target, StandardCopyOption.REPLACE_EXISTING);
+                    if ((entry.getMode() & 0100) != 0) {
+                        Files.setPosixFilePermissions(target, PosixFilePermissions.fromString("rwxr-xr-x"));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void createDatabase(String adminUrl, String user, String database) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(adminUrl, user, "");
+             Statement statement = connection.createStatement()) {
+            try (ResultSet exists = statement.executeQuery("SELECT 1 FROM pg_database WHERE datname = '" + database + "'")) {
+                if (exists.next()) {
+                    return;
+                }
+            }
+            statement.execute("CREATE DATABASE " + database);
+        }
+    }
+
+    private static void run(String... command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes());
+        if (!process.waitFor(2, TimeUnit.MINUTES) || process.exitValue() != 0) {
+            throw new IllegalStateException(String.join(" ", command) + " failed:\n" + output);
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (var paths = Files.walk(path)) {
+            paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
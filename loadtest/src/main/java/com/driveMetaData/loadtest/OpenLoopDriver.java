@@ -0,0 +1,113 @@
+package com.driveMetaData.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Sends requests to one endpoint at a fixed arrival rate, whether or not earlier requests have completed.
+ * Latency is measured from the time a request was scheduled to go out, not from when it actually went out,
+ * so a stalled server shows up in the percentiles instead of silently lowering the request rate.
+ */
+final class OpenLoopDriver {
+
+    /**
+     * Called for every completed request with the nanoTime it was scheduled at.
+     */
+    interface ResponseListener {
+        void completed(long sequence, HttpResponse<?> response, long scheduledNanos, long completedNanos);
+    }
+
+    record Result(String endpoint, Histogram latencyMicros, long ok, long notOk, long failed, long dropped, double seconds) {
+    }
+
+    private final String endpoint;
+    private final HttpClient client;
+    private final double ratePerSecond;
+    private final int maxInFlight;
+    private final LongFunction<HttpRequest> requests;
+    private final ResponseListener listener;
+
+    private final Recorder latency = new Recorder(3);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder notOk = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private long sequence;
+
+    OpenLoopDriver(String endpoint, HttpClient client, double ratePerSecond, int maxInFlight,
+                   LongFunction<HttpRequest> requests, ResponseListener listener) {
+        this.endpoint = endpoint;
+        this.client = client;
+        this.ratePerSecond = ratePerSecond;
+        this.maxInFlight = maxInFlight;
+        this.requests = requests;
+        this.listener = listener;
+    }
+
+    Thread start(long durationNanos) {
+        Thread dispatcher = new Thread(() -> dispatch(System.nanoTime() + durationNanos), "load-" + endpoint);
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        return dispatcher;
+    }
+
+    private void dispatch(long endNanos) {
+        if (ratePerSecond <= 0) {
+            return;
+        }
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long next = System.nanoTime();
+        while (next < endNanos) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long scheduled = next;
+            next += intervalNanos;
+            // Past this the client, not the server, would be the bottleneck
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                dropped.increment();
+                continue;
+            }
+            long current = sequence++;
+            client.sendAsync(requests.apply(current), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long completed = System.nanoTime();
+                        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(completed - scheduled));
+                        if (failure != null) {
+                            failed.increment();
+                        } else if (response.statusCode() / 100 == 2) {
+                            ok.increment();
+                            listener.completed(current, response, scheduled, completed);
+                        } else {
+                            notOk.increment();
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+    }
+
+    void awaitInFlight(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    // Everything recorded since the previous call, so a warmup can be thrown away
+    Result takeResult(double seconds) {
+        return new Result(endpoint, latency.getIntervalHistogram(), ok.sumThenReset(), notOk.sumThenReset(),
+                failed.sumThenReset(), dropped.sumThenReset(), seconds);
+    }
+}
@@ -0,0 +1,357 @@
+package com.driveMetaData.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Starts the backend against {@link LocalStandIns} and drives /api/v1/authenticate, /api/v1/register and
+ * /api/v1/users at fixed open-loop arrival rates. Prints HDR latency percentiles per endpoint and for the
+ * time from a registration's HTTP 202 until its row is in {@code registrations}, and writes each histogram
+ * as a percentile distribution (.hgrm) to the report directory.
+ *
+ * <pre>
+ * mvn -pl backend,loadtest package -DskipTests
+ * mvn -pl loadtest exec:java -Dexec.args="--register-rate=500 --users-rate=50 --authenticate-rate=5 --duration=60"
+ * </pre>
+ *
+ * {@code --postgres=local} (default) uses the PostgreSQL at {@code --jdbc-url}, {@code --postgres=embedded} unpacks
+ * a private cluster into loadtest/target, which initdb refuses to do as root. Extra backend properties go in
+ * {@code --backend-args}, separated by spaces. The stored time is found by polling, so it is accurate to
+ * {@code --poll-ms}. The run's registrations are deleted at the end unless {@code --keep-rows=true}.
+ */
+public class RegistrationLoadTest {
+
+    private static final String EMAIL_DOMAIN = "@loadtest.example.com";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String jar = options.getOrDefault("jar", "backend/target/backend-0.0.1-SNAPSHOT-exec.jar");
+        String java = options.getOrDefault("java", ProcessHandle.current().info().command().orElse("java"));
+        String heap = options.getOrDefault("heap", "1g");
+        int port = Integer.parseInt(options.getOrDefault("port", "18080"));
+        String clientId = options.getOrDefault("client-id", "loadtest");
+        double authenticateRate = Double.parseDouble(options.getOrDefault("authenticate-rate", "5"));
+        double registerRate = Double.parseDouble(options.getOrDefault("register-rate", "200"));
+        double usersRate = Double.parseDouble(options.getOrDefault("users-rate", "20"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "15"));
+        int drainSeconds = Integer.parseInt(options.getOrDefault("drain-timeout", "60"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "5000"));
+        long pollMillis = Long.parseLong(options.getOrDefault("poll-ms", "20"));
+        int partitions = Integer.parseInt(options.getOrDefault("partitions", "6"));
+        Path workDir = Paths.get(options.getOrDefault("work-dir", "loadtest/target")).toAbsolutePath().normalize();
+        Path reportDir = workDir.resolve("loadtest-report");
+        Files.createDirectories(reportDir);
+
+        System.out.println("Starting Kafka, Redis and PostgreSQL stand-ins");
+        try (LocalStandIns standIns = LocalStandIns.start(
+                options.getOrDefault("postgres", "local"),
+                options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:7003/registration_db?reWriteBatchedInserts=true"),
+                options.getOrDefault("db-user", "user"),
+                options.getOrDefault("db-password", "password"),
+                partitions, workDir)) {
+
+            List<String> command = new ArrayList<>(List.of(java, "-Xms" + heap, "-Xmx" + heap, "-jar", jar,
+                    "--server.port=" + port,
+                    "--management.server.port=" + (port + 1),
+                    "--app.kafka.topic.partitions=" + partitions,
+                    // The load test measures the service, not the per-client limit
+                    "--app.ratelimit.capacity=1000000000",
+                    "--app.ratelimit.refill-rate=1000000000",
+                    "--app.ratelimit.refill-period-seconds=1"));
+            command.addAll(standIns.backendArguments());
+            if (options.containsKey("backend-args")) {
+                command.addAll(Arrays.asList(options.get("backend-args").trim().split("\\s+")));
+            }
+            Process server = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(reportDir.resolve("backend.log").toFile())
+                    .start();
+            try {
+                String baseUrl = "http://localhost:" + port;
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+                String credentials = new ObjectMapper().writeValueAsString(Map.of(
+                        "username", options.getOrDefault("username", "admin"),
+                        "password", options.getOrDefault("password", "admin123")));
+                String token = awaitLogin(client, baseUrl, credentials, server, reportDir);
+                activateClient(client, baseUrl, token, clientId);
+
+                String runId = Long.toString(System.currentTimeMillis(), 36);
+                StoredRowWatcher watcher = new StoredRowWatcher(standIns, pollMillis);
+                watcher.start();
+
+                System.out.printf("Open loop: authenticate %.1f/s, register %.1f/s, users %.1f/s, warmup %d s, measured %d s%n",
+                        authenticateRate, registerRate, usersRate, warmupSeconds, durationSeconds);
+                runPhase(client, baseUrl, token, credentials, clientId, "loadtest-" + runId + "-w-", null,
+                        authenticateRate, registerRate, usersRate, maxInFlight, warmupSeconds);
+                List<OpenLoopDriver.Result> results = runPhase(client, baseUrl, token, credentials, clientId,
+                        "loadtest-" + runId + "-m-", watcher, authenticateRate, registerRate, usersRate, maxInFlight,
+                        durationSeconds);
+
+                // Registrations accepted in the measured phase, waited for until stored or the drain timeout
+                long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainSeconds);
+                while (watcher.pending() > 0 && System.nanoTime() < drainDeadline) {
+                    Thread.sleep(100);
+                }
+                watcher.stop();
+
+                report(results, watcher, reportDir);
+                if (!Boolean.parseBoolean(options.getOrDefault("keep-rows", "false"))) {
+                    deleteRun(standIns, "loadtest-" + runId + "-");
+                }
+            } finally {
+                server.destroy();
+                if (!server.waitFor(30, TimeUnit.SECONDS)) {
+                    server.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    private static List<OpenLoopDriver.Result> runPhase(HttpClient client, String baseUrl, String token, String credentials,
+                                                        String clientId, String emailPrefix, StoredRowWatcher watcher,
+                                                        double authenticateRate, double registerRate, double usersRate,
+                                                        int maxInFlight, int seconds) throws InterruptedException {
+        LongFunction<HttpRequest> authenticate = n -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/authenticate"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                .build();
+        LongFunction<HttpRequest> register = n -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/register"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .header("Client_id", clientId)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Load Test\",\"email\":\"" + emailPrefix + n + EMAIL_DOMAIN
+                        + "\",\"mobile\":\"9876543210\",\"city\":\"Pune\"}"))
+                .build();
+        LongFunction<HttpRequest> users = n -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/users?limit=50&emailPrefix="
+                        + URLEncoder.encode("loadtest-", StandardCharsets.UTF_8)))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+
+        OpenLoopDriver.ResponseListener accepted = watcher == null
+                ? (n, response, scheduled, completed) -> { }
+                : (n, response, scheduled, completed) -> watcher.accepted(emailPrefix + n + EMAIL_DOMAIN, completed);
+        List<OpenLoopDriver> drivers = List.of(
+                new OpenLoopDriver("authenticate", client, authenticateRate, maxInFlight, authenticate, (n, r, s, c) -> { }),
+                new OpenLoopDriver("register", client, registerRate, maxInFlight, register, accepted),
+                new OpenLoopDriver("users", client, usersRate, maxInFlight, users, (n, r, s, c) -> { }));
+
+        long durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> dispatchers = drivers.stream().map(driver -> driver.start(durationNanos)).toList();
+        for (Thread dispatcher : dispatchers) {
+            dispatcher.join();
+        }
+        for (OpenLoopDriver driver : drivers) {
+            driver.awaitInFlight(TimeUnit.SECONDS.toNanos(30));
+        }
+        return drivers.stream().map(driver -> driver.takeResult(seconds)).toList();
+    }
+
+    private static void report(List<OpenLoopDriver.Result> results, StoredRowWatcher watcher, Path reportDir) throws IOException {
+        System.out.printf("%n%-14s %9s %9s %9s %9s %9s %10s %10s %10s %10s %10s %10s%n", "endpoint", "requests", "2xx",
+                "other", "failed", "dropped", "req/s", "p50 (ms)", "p90 (ms)", "p99 (ms)", "p99.9 (ms)", "max (ms)");
+        for (OpenLoopDriver.Result result : results) {
+            long requests = result.ok() + result.notOk() + result.failed() + result.dropped();
+            System.out.printf("%-14s %9d %9d %9d %9d %9d %10.1f %s%n", result.endpoint(), requests, result.ok(),
+                    result.notOk(), result.failed(), result.dropped(), requests / result.seconds(),
+                    percentiles(result.latencyMicros()));
+            writeDistribution(result.latencyMicros(), reportDir.resolve(result.endpoint() + ".hgrm"));
+        }
+
+        Histogram stored = watcher.takeHistogram();
+        System.out.printf("%n%-14s %9s %9s %9s %10s %10s %10s %10s %10s%n", "202 -> row", "accepted", "stored",
+                "missing", "p50 (ms)", "p90 (ms)", "p99 (ms)", "p99.9 (ms)", "max (ms)");
+        System.out.printf("%-14s %9d %9d %9d %s%n", "registrations", stored.getTotalCount() + watcher.pending(),
+                stored.getTotalCount(), watcher.pending(), percentiles(stored));
+        writeDistribution(stored, reportDir.resolve("register-to-row.hgrm"));
+        System.out.println("\nPercentile distributions written to " + reportDir);
+    }
+
+    private static void deleteRun(LocalStandIns standIns, String emailPrefix) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(standIns.jdbcUrl(), standIns.dbUser(), standIns.dbPassword());
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM registrations WHERE email LIKE ?")) {
+            delete.setString(1, emailPrefix + "%");
+            System.out.printf("Deleted %d registrations of this run%n", delete.executeUpdate());
+        }
+    }
+
+    private static String percentiles(Histogram micros) {
+        if (micros.getTotalCount() == 0) {
+            return String.format("%10s %10s %10s %10s %10s", "-", "-", "-", "-", "-");
+        }
+        return String.format("%10.2f %10.2f %10.2f %10.2f %10.2f",
+                micros.getValueAtPercentile(50) / 1000.0, micros.getValueAtPercentile(90) / 1000.0,
+                micros.getValueAtPercentile(99) / 1000.0, micros.getValueAtPercentile(99.9) / 1000.0,
+                micros.getMaxValue() / 1000.0);
+    }
+
+    // Same format as HdrHistogram's own tools, in milliseconds, for plotting or comparing runs
+    private static void writeDistribution(Histogram micros, Path file) throws IOException {
+        try (PrintStream out = new PrintStream(file.toFile(), StandardCharsets.UTF_8)) {
+            micros.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    /**
+     * Polls {@code registrations} for the registrations accepted with HTTP 202 and not seen yet, and records the
+     * time from the 202 until the row was found. Lookups go by email, ids are not committed in order.
+     */
+    private static final class StoredRowWatcher {
+
+        private final LocalStandIns standIns;
+        private final long pollMillis;
+        private final Recorder stored = new Recorder(3);
+        // email -> nanoTime of the 202
+        private final Map<String, Long> acceptedAt = new HashMap<>();
+        private volatile boolean running = true;
+        private Thread poller;
+
+        private StoredRowWatcher(LocalStandIns standIns, long pollMillis) {
+            this.standIns = standIns;
+            this.pollMillis = pollMillis;
+        }
+
+        void start() throws SQLException {
+            Connection connection = DriverManager.getConnection(standIns.jdbcUrl(), standIns.dbUser(), standIns.dbPassword());
+            poller = new Thread(() -> poll(connection), "stored-row-watcher");
+            poller.setDaemon(true);
+            poller.start();
+        }
+
+        synchronized void accepted(String email, long nanos) {
+            acceptedAt.put(email, nanos);
+        }
+
+        synchronized int pending() {
+            return acceptedAt.size();
+        }
+
+        Histogram takeHistogram() {
+            return stored.getIntervalHistogram();
+        }
+
+        void stop() throws InterruptedException {
+            running = false;
+            poller.join();
+        }
+
+        private void poll(Connection connection) {
+            try (connection;
+                 PreparedStatement query = connection.prepareStatement("SELECT email FROM registrations WHERE email = ANY(?)")) {
+                while (running) {
+                    String[] pending;
+                    synchronized (this) {
+                        pending = acceptedAt.keySet().toArray(String[]::new);
+                    }
+                    if (pending.length > 0) {
+                        query.setArray(1, connection.createArrayOf("text", pending));
+                        try (ResultSet rs = query.executeQuery()) {
+                            long now = System.nanoTime();
+                            while (rs.next()) {
+                                seen(rs.getString(1), now);
+                            }
+                        }
+                    }
+                    Thread.sleep(pollMillis);
+                }
+            } catch (SQLException e) {
+                System.err.println("Stopped watching registrations: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private synchronized void seen(String email, long nanos) {
+            Long accepted = acceptedAt.remove(email);
+            if (accepted != null) {
+                stored.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos - accepted)));
+            }
+        }
+    }
+
+    // Retries the login until it succeeds, the admin user is only seeded once the web server is already up
+    private static String awaitLogin(HttpClient client, String baseUrl, String credentials, Process server,
+                                     Path reportDir) throws Exception {
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/authenticate"))
+                .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> last = null;
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(3);
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Backend exited with " + server.exitValue() + ", see "
+                        + new File(reportDir.toFile(), "backend.log"));
+            }
+            try {
+                last = client.send(login, HttpResponse.BodyHandlers.ofString());
+                if (last.statusCode() == 200) {
+                    return new ObjectMapper().readTree(last.body()).get("token").asText();
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("No successful login within 3 minutes"
+                + (last == null ? "" : ", last response " + last.statusCode() + ": " + last.body()));
+    }
+
+    // Registers the load test's Client_id as active in the client registry through the admin API
+    private static void activateClient(HttpClient client, String baseUrl, String token, String clientId) throws Exception {
+        HttpRequest activate = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/admin/clients/" + clientId))
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"status\":\"active\"}"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = client.send(activate, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not activate client " + clientId + ": "
+                    + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}